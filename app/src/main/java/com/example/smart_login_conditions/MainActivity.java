@@ -1,15 +1,13 @@
 package com.example.smart_login_conditions;
 
 import android.Manifest;
-import android.content.ActivityNotFoundException;
-import android.content.BroadcastReceiver;
-import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.os.Build;
 import android.os.Bundle;
-import android.speech.RecognizerIntent;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.widget.Toast;
 
@@ -21,25 +19,45 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.example.smart_login_conditions.adapters.ConditionAdapter;
 import com.example.smart_login_conditions.databinding.ActivityMainBinding;
+import com.example.smart_login_conditions.interfaces.ConditionActionListener;
+import com.example.smart_login_conditions.interfaces.ConditionEvaluator;
 import com.example.smart_login_conditions.managers.BluetoothManager;
+import com.example.smart_login_conditions.managers.CallerHistoryStore;
+import com.example.smart_login_conditions.managers.ConditionEventBus;
+import com.example.smart_login_conditions.managers.ConditionRegistry;
+import com.example.smart_login_conditions.managers.ContactNameResolver;
+import com.example.smart_login_conditions.managers.LoginPolicyEngine;
+import com.example.smart_login_conditions.managers.LoginPolicyLoader;
 import com.example.smart_login_conditions.managers.SensorHandler;
+import com.example.smart_login_conditions.managers.StartupOrchestrator;
+import com.example.smart_login_conditions.managers.VoiceCommandHandler;
 import com.example.smart_login_conditions.models.Condition;
+import com.example.smart_login_conditions.models.ConditionId;
+import com.example.smart_login_conditions.models.LoginPolicy;
+import com.example.smart_login_conditions.models.StatusCode;
 import com.example.smart_login_conditions.utils.PermissionUtils;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
+import org.json.JSONException;
+
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @RequiresApi(api = Build.VERSION_CODES.S)
 public class MainActivity extends AppCompatActivity {
 
     private ActivityMainBinding binding;
     private ConditionAdapter conditionAdapter;
-    private List<Condition> conditionList;
+    private final ConditionRegistry conditionRegistry = new ConditionRegistry();
 
-    private static final int REQUEST_CODE_VOICE = 3001;
     private static final int REQUEST_CODE_CALL_PERMISSION = 4001;
 
-    private final String VOICE_PASSWORD = "Password";
     private final String[] CALL_PERMISSION = new String[]{
             Manifest.permission.READ_PHONE_STATE,
             Manifest.permission.READ_CALL_LOG,
@@ -51,10 +69,62 @@ public class MainActivity extends AppCompatActivity {
     private static final String[] MIC_PERMISSION = new String[]{
             Manifest.permission.RECORD_AUDIO
     };
+    private static final int REQUEST_CODE_RECORD_KEYWORD = 5002;
+
+    // enable with: adb shell setprop log.tag.SensorTrace DEBUG
+    private static final String SENSOR_TRACE_TAG = "SensorTrace";
+
+    // enable with: adb shell setprop log.tag.ConditionEvents DEBUG
+    private static final String CONDITION_EVENTS_TAG = "ConditionEvents";
+
+    private static final String STARTUP_TAG = "Startup";
+    private static final int STARTUP_THREADS = 3;
+
+    private static final String EXPIRED_STATUS = "⌛ Expired";
+
+    // created by background startup steps, used once bindUi has run; onDestroy may see them earlier.
+    // Null when their step failed
+    private volatile BluetoothManager bluetoothManager;
+    private volatile SensorHandler sensorHandler;
+    private volatile VoiceCommandHandler voiceCommandHandler;
+    private CallerHistoryStore.Entry lastCaller;
+    private LoginPolicy loginPolicy;
+
+    private final ConditionEventBus conditionEvents = ConditionEventBus.getInstance();
+    private final ConditionEventBus.Subscriber conditionEventSubscriber = this::onConditionEvent;
+    private final ConditionEventBus.Subscriber conditionEventLogger = event ->
+            Log.d(CONDITION_EVENTS_TAG, event.toString());
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private LoginPolicyEngine policyEngine;
+    private final Runnable policyRefresh = () -> policyEngine.refresh(SystemClock.elapsedRealtime());
+    private final LoginPolicyEngine.Host policyHost = new LoginPolicyEngine.Host() {
+        @Override
+        public void activate(ConditionId id) {
+            conditionRegistry.start(id);
+        }
 
-    private BluetoothManager bluetoothManager;
-    private SensorHandler sensorHandler;
-    private BroadcastReceiver callUpdateReceiver;
+        @Override
+        public void deactivate(ConditionId id) {
+            conditionRegistry.stop(id);
+        }
+
+        @Override
+        public void onExpired(ConditionId id) {
+            conditionRegistry.update(id, EXPIRED_STATUS, false);
+        }
+
+        @Override
+        public void scheduleRefresh(long atMs) {
+            mainHandler.removeCallbacks(policyRefresh);
+            if (atMs >= 0)
+                mainHandler.postDelayed(policyRefresh, Math.max(0, atMs - SystemClock.elapsedRealtime()));
+        }
+    };
+
+    private ExecutorService startupPool;
+    private StartupOrchestrator startup;
+    private boolean conditionsBound;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -64,64 +134,210 @@ public class MainActivity extends AppCompatActivity {
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        sensorHandler = new SensorHandler(this);
-        bluetoothManager = new BluetoothManager(this, "AirPods");
+        startupPool = Executors.newFixedThreadPool(STARTUP_THREADS);
+        startup = new StartupOrchestrator(startupPool, mainHandler::post)
+                .onBackground("policy", this::loadLoginPolicy)
+                .onBackground("callerHistory", this::loadLastCaller)
+                .onBackground("contacts", this::warmUpContacts)
+                .onBackground("sensors", () -> sensorHandler = new SensorHandler(this))
+                .onBackground("bluetooth", () -> bluetoothManager = new BluetoothManager(this,
+                        getResources().getStringArray(R.array.bluetooth_target_devices)))
+                .onBackground("bondedDevices", this::prefetchBondedDevices, "bluetooth", "policy")
+                .onBackground("voice", () -> voiceCommandHandler = new VoiceCommandHandler(this,
+                        getResources().getStringArray(R.array.voice_passphrases)))
+                .onBackground("adapter", this::createAdapter)
+                .onMain("bindUi", this::bindConditions, "policy", "sensors", "bluetooth", "voice", "adapter")
+                .onMain("startConditions", this::startConditions, "bindUi")
+                .onMain("lastCaller", this::applyLastCaller, "callerHistory", "bindUi")
+                // the screen works without these, their conditions show as unavailable
+                .optional("callerHistory", "contacts", "sensors", "bluetooth", "bondedDevices", "voice",
+                        "startConditions", "lastCaller");
+
+        startup.start((timings, failure) -> {
+            startupPool.shutdown();
+            for (StartupOrchestrator.Timing timing : timings) {
+                if (timing.failed)
+                    Log.e(STARTUP_TAG, timing.toString(), timing.error);
+                else
+                    Log.d(STARTUP_TAG, timing.toString());
+            }
+            // only set by the steps not marked optional, there is no screen without them
+            if (failure != null)
+                throw new IllegalStateException("Startup failed", failure);
+        });
+    }
 
-        bluetoothManager.setStatusListener((status, isSuccess) ->
-                updateConditionStatus("Bluetooth Device", status, isSuccess));
+    private void bindConditions() {
+        if (sensorHandler != null)
+            getLifecycle().addObserver(sensorHandler.getSessions());
+        policyEngine = new LoginPolicyEngine(loginPolicy, policyHost);
+        conditionEvents.subscribe(conditionEventSubscriber);
+        if (Log.isLoggable(CONDITION_EVENTS_TAG, Log.DEBUG))
+            conditionEvents.subscribe(conditionEventLogger);
 
         setupCondition();
         setupRecyclerView();
+        setupListener();
+        conditionsBound = true;
+    }
 
-        startGyroscopeMonitoring();
-        startLightSensorMonitoring();
+    private void startConditions() {
+        if (Log.isLoggable(SENSOR_TRACE_TAG, Log.DEBUG))
+            startSensorTraceRecording();
+        // sources start as the policy needs them, cheapest first
+        policyEngine.start(SystemClock.elapsedRealtime());
+    }
 
-        loadLastCallerFromPrefs();
-        setupListener();
+    private void loadLoginPolicy() {
+        try {
+            loginPolicy = LoginPolicyLoader.load(this, LoginPolicyLoader.DEFAULT_ASSET);
+        } catch (IOException | JSONException e) {
+            Log.e(STARTUP_TAG, "Cannot load " + LoginPolicyLoader.DEFAULT_ASSET + ", requiring every condition", e);
+            loginPolicy = requireEveryCondition();
+        }
+    }
+
+    private static LoginPolicy requireEveryCondition() {
+        ConditionId[] ids = ConditionId.values();
+        LoginPolicy[] conditions = new LoginPolicy[ids.length];
+        for (int i = 0; i < ids.length; i++)
+            conditions[i] = LoginPolicy.condition(ids[i]);
+        return LoginPolicy.allOf(conditions);
+    }
+
+    private void prefetchBondedDevices() {
+        if (bluetoothManager != null && loginPolicy.getConditions().contains(ConditionId.BLUETOOTH_DEVICE))
+            bluetoothManager.prefetchBondedDevices();
+    }
+
+    private void warmUpContacts() {
+        if (PermissionUtils.hasPermission(this, CALL_PERMISSION))
+            ContactNameResolver.getInstance(this).warmUp();
     }
 
     private void setupListener() {
         binding.mainBTNLogin.setOnClickListener(v -> validateLogin());
+
+        updateLoginButton(policyEngine.isSatisfied());
+        policyEngine.addListener(this::updateLoginButton);
+    }
+
+    private void updateLoginButton(boolean ready) {
+        binding.mainBTNLogin.setAlpha(ready ? 1f : 0.5f);
     }
 
     private void setupCondition() {
-        conditionList = new ArrayList<>();
-        conditionList.add(new Condition("Bluetooth Device", "Waiting...", Condition.ConditionType.ACTION_BUTTON, false));
-        conditionList.add(new Condition("Voice Command", "Waiting...", Condition.ConditionType.ACTION_BUTTON, false));
-        conditionList.add(new Condition("Call Match", "Waiting...", Condition.ConditionType.INPUT_FIELD, false));
-        conditionList.add(new Condition("Device Spin", "Waiting...", Condition.ConditionType.AUTOMATIC, false));
-        conditionList.add(new Condition("Room is bright", "Waiting...", Condition.ConditionType.AUTOMATIC, false));
+        Set<ConditionId> inPolicy = policyEngine.getConditions();
+        List<StatusCode> unavailable = new ArrayList<>();
+        if (bluetoothManager != null)
+            registerCondition(inPolicy, ConditionId.BLUETOOTH_DEVICE, ConditionEvaluator.onAction(
+                    bluetoothManager::checkBluetoothPermissionsAndScan, bluetoothManager::stopDiscovery));
+        else
+            registerUnavailable(inPolicy, StatusCode.BLUETOOTH_UNAVAILABLE, unavailable);
+        if (voiceCommandHandler != null)
+            registerCondition(inPolicy, ConditionId.VOICE_COMMAND, ConditionEvaluator.onAction(
+                    this::requestVoiceRecognition, voiceCommandHandler::stopListening));
+        else
+            registerUnavailable(inPolicy, StatusCode.VOICE_NOT_SUPPORTED, unavailable);
+        registerCondition(inPolicy, ConditionId.CALL_MATCH,
+                ConditionEvaluator.onAction(this::requestCallPermissions));
+        if (sensorHandler != null) {
+            registerCondition(inPolicy, ConditionId.DEVICE_SPIN, ConditionEvaluator.automatic(
+                    sensorHandler::startGyroscopeMonitoring, sensorHandler::stopGyroscopeMonitoring));
+            registerCondition(inPolicy, ConditionId.ROOM_BRIGHT, ConditionEvaluator.automatic(
+                    sensorHandler::startLightMonitoring, sensorHandler::stopLightMonitoring));
+        } else {
+            registerUnavailable(inPolicy, StatusCode.NO_GYROSCOPE, unavailable);
+            registerUnavailable(inPolicy, StatusCode.NO_LIGHT_SENSOR, unavailable);
+        }
+
+        // failed before the engine starts, so it goes for the alternatives right away
+        for (StatusCode code : unavailable)
+            conditionEvents.publish(code);
+
+        conditionRegistry.setOnConditionsChangedListener(snapshots ->
+                conditionAdapter.submitList(snapshots));
+    }
+
+    // the row stays, failed, when its manager could not be created at startup
+    private void registerUnavailable(Set<ConditionId> inPolicy, StatusCode failure, List<StatusCode> unavailable) {
+        ConditionId id = failure.getCondition();
+        registerCondition(inPolicy, id, new ConditionEvaluator() {
+        });
+        if (inPolicy.contains(id))
+            unavailable.add(failure);
+    }
+
+    // conditions the policy does not mention are not shown
+    private void registerCondition(Set<ConditionId> inPolicy, ConditionId id, ConditionEvaluator evaluator) {
+        if (inPolicy.contains(id))
+            conditionRegistry.register(id, evaluator);
+    }
+
+    private void createAdapter() {
+        conditionAdapter = new ConditionAdapter(new ConditionActionListener() {
+            @Override
+            public void onActionClicked(ConditionId id) {
+                if (!policyEngine.isRelevant(id)) {
+                    Toast.makeText(MainActivity.this, "Not needed to log in", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                conditionRegistry.dispatchAction(id);
+            }
+
+            @Override
+            public boolean onActionLongClicked(ConditionId id) {
+                if (id != ConditionId.VOICE_COMMAND || voiceCommandHandler == null
+                        || !voiceCommandHandler.usesKeywordDetection())
+                    return false;
+                showKeywordDialog();
+                return true;
+            }
+
+            @Override
+            public void onInputMatched(ConditionId id, boolean matched) {
+                if (id == ConditionId.CALL_MATCH)
+                    conditionEvents.publish(matched ? StatusCode.CALL_MATCHED : StatusCode.CALL_MISMATCH);
+            }
+        });
     }
 
     private void setupRecyclerView() {
-        conditionAdapter = new ConditionAdapter(conditionList, this::handleConditionAction);
         binding.mainRVList.setLayoutManager(new LinearLayoutManager(this));
         binding.mainRVList.setAdapter(conditionAdapter);
+        conditionAdapter.submitList(conditionRegistry.snapshot());
     }
 
-    private void handleConditionAction(Condition condition) {
-        switch (condition.getName()) {
-            case "Bluetooth Device":
-                bluetoothManager.checkBluetoothPermissionsAndScan();
-                break;
-            case "Voice Command":
-                if (PermissionUtils.hasPermission(this, MIC_PERMISSION))
-                    startVoiceRecognition();
-                else
-                    PermissionUtils.requestPermission(this, MIC_PERMISSION, REQUEST_CODE_MIC_PERMISSION);
-                break;
-            case "Call Match":
-                requestCallPermissions();
-                break;
-        }
+    private void requestVoiceRecognition() {
+        if (PermissionUtils.hasPermission(this, MIC_PERMISSION))
+            startVoiceRecognition();
+        else
+            PermissionUtils.requestPermission(this, MIC_PERMISSION, REQUEST_CODE_MIC_PERMISSION);
+    }
+
+    // without a recognition service the passphrase is matched by sound, so it has to be recorded first
+    private void showKeywordDialog() {
+        String passphrase = getResources().getStringArray(R.array.voice_passphrases)[0];
+        new MaterialAlertDialogBuilder(this)
+                .setTitle("Voice Passphrase")
+                .setMessage("Tap Record and say \"" + passphrase + "\".")
+                .setPositiveButton("Record", (dialog, which) -> requestKeywordRecording())
+                .setNeutralButton("Forget", (dialog, which) -> voiceCommandHandler.clearKeywords())
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void requestKeywordRecording() {
+        if (PermissionUtils.hasPermission(this, MIC_PERMISSION))
+            voiceCommandHandler.recordKeyword();
+        else
+            PermissionUtils.requestPermission(this, MIC_PERMISSION, REQUEST_CODE_RECORD_KEYWORD);
     }
 
     private void validateLogin() {
-        for (Condition condition : conditionList) {
-            if (!condition.isPassed()) {
-                Toast.makeText(this, "Login Failed, make sure all conditions are passed", Toast.LENGTH_SHORT).show();
-                return;
-            }
+        if (!policyEngine.isSatisfied()) {
+            Toast.makeText(this, "Login Failed, make sure all conditions are passed", Toast.LENGTH_SHORT).show();
+            return;
         }
 
         Toast.makeText(this, "Login Successful", Toast.LENGTH_SHORT).show();
@@ -130,35 +346,56 @@ public class MainActivity extends AppCompatActivity {
         finish();
     }
 
-    @RequiresApi(api = Build.VERSION_CODES.TIRAMISU)
-    @Override
-    protected void onStart() {
-        super.onStart();
-        callUpdateReceiver = new BroadcastReceiver() {
-            @Override
-            public void onReceive(Context context, Intent intent) {
-                if ("com.example.smart_login_conditions.CALLER_UPDATED".equals(intent.getAction())) {
-                    loadLastCallerFromPrefs();
-                }
-            }
-        };
-        IntentFilter filter = new IntentFilter("com.example.smart_login_conditions.CALLER_UPDATED");
-        registerReceiver(callUpdateReceiver, filter, Context.RECEIVER_NOT_EXPORTED);
+    private void onConditionEvent(ConditionEventBus.ConditionEvent event) {
+        StatusCode code = event.getCode();
+        String argument = event.getArgument();
+        // caller updates are published from the contact lookup thread; the event itself is reused
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            runOnUiThread(() -> applyConditionEvent(code, argument));
+            return;
+        }
+        applyConditionEvent(code, argument);
     }
 
-    @Override
-    protected void onStop() {
-        super.onStop();
-        if (callUpdateReceiver != null)
-            unregisterReceiver(callUpdateReceiver);
+    // the only place status codes are turned into text
+    private void applyConditionEvent(StatusCode code, String argument) {
+        if (code.isStatus()) {
+            conditionRegistry.update(code.getCondition(), code.format(argument), code.isPassed());
+            policyEngine.onStatus(code, SystemClock.elapsedRealtime());
+        } else if (code == StatusCode.CALLER_UPDATED) {
+            Condition callMatch = conditionRegistry.get(ConditionId.CALL_MATCH);
+            if (callMatch == null || Objects.equals(callMatch.getExpectedInput(), argument))
+                return;
+            // a pass was for the previous caller; the row matches its input against the new one
+            applyConditionEvent(StatusCode.CALL_WAITING, null);
+            conditionRegistry.setExpectedInput(ConditionId.CALL_MATCH, argument);
+        }
+    }
+
+    private void loadLastCaller() {
+        try {
+            CallerHistoryStore history = CallerHistoryStore.getInstance(getFilesDir());
+            migrateLastCallerFromPrefs(history);
+            lastCaller = history.latest();
+        } catch (IOException e) {
+            Log.e("MainActivity", "Cannot read caller history", e);
+        }
+    }
+
+    private void applyLastCaller() {
+        conditionRegistry.setExpectedInput(ConditionId.CALL_MATCH, lastCaller != null ? lastCaller.name : null);
     }
 
-    private void loadLastCallerFromPrefs() {
+    // the last caller used to live in the CallLog preferences, carry it over once
+    private void migrateLastCallerFromPrefs(CallerHistoryStore history) {
         SharedPreferences prefs = getSharedPreferences("CallLog", MODE_PRIVATE);
-        String lastCaller = prefs.getString("last_caller_name", null);
+        String name = prefs.getString("last_caller_name", null);
+        if (name == null)
+            return;
 
-        if (conditionAdapter != null)
-            conditionAdapter.setLastCallerName(lastCaller);
+        if (history.size() == 0)
+            history.append(name, prefs.getLong("last_call_timestamp", 0));
+        prefs.edit().clear().apply();
     }
 
     private void requestCallPermissions() {
@@ -166,40 +403,19 @@ public class MainActivity extends AppCompatActivity {
             PermissionUtils.requestPermission(this, CALL_PERMISSION, REQUEST_CODE_CALL_PERMISSION);
     }
 
-    private void startGyroscopeMonitoring() {
-        sensorHandler.startGyroscopeMonitoring((status, passed) ->
-                updateConditionStatus("Device Spin", status, passed));
-    }
-
-    private void startLightSensorMonitoring() {
-        sensorHandler.startLightMonitoring((status, passed) ->
-                updateConditionStatus("Room is bright", status, passed));
-    }
-
-
-    private void startVoiceRecognition() {
-        Intent intent = new Intent(RecognizerIntent.ACTION_RECOGNIZE_SPEECH);
-        intent.putExtra(RecognizerIntent.EXTRA_LANGUAGE_MODEL, RecognizerIntent.LANGUAGE_MODEL_FREE_FORM);
-        intent.putExtra(RecognizerIntent.EXTRA_LANGUAGE, "en-US");
-        intent.putExtra(RecognizerIntent.EXTRA_PROMPT, VOICE_PASSWORD);
-
-        try {
-            startActivityForResult(intent, REQUEST_CODE_VOICE);
-        } catch (ActivityNotFoundException e) {
-            Toast.makeText(this, "Voice recognition not supported on this device", Toast.LENGTH_SHORT).show();
+    private void startSensorTraceRecording() {
+        if (sensorHandler == null)
+            return;
+        File traceDir = new File(getFilesDir(), "sensor_traces");
+        if (!traceDir.isDirectory() && !traceDir.mkdirs()) {
+            Log.w(SENSOR_TRACE_TAG, "Cannot create " + traceDir);
+            return;
         }
+        sensorHandler.startTraceRecording(new File(traceDir, System.currentTimeMillis() + ".trace"));
     }
 
-    private void updateConditionStatus(String name, String status, boolean passed) {
-        for (int i = 0; i < conditionList.size(); i++) {
-            Condition condition = conditionList.get(i);
-            if (condition.getName().equals(name)) {
-                condition.setStatus(status);
-                condition.setPassed(passed);
-                conditionAdapter.notifyItemChanged(i);
-                break;
-            }
-        }
+    private void startVoiceRecognition() {
+        voiceCommandHandler.startListening();
     }
 
     @Override
@@ -212,18 +428,6 @@ public class MainActivity extends AppCompatActivity {
             else
                 Toast.makeText(this, "Bluetooth must be enabled", Toast.LENGTH_SHORT).show();
         }
-
-        if (requestCode == REQUEST_CODE_VOICE && resultCode == RESULT_OK && data != null) {
-            ArrayList<String> results = data.getStringArrayListExtra(RecognizerIntent.EXTRA_RESULTS);
-            if (results != null && !results.isEmpty()) {
-                String spokenText = results.get(0).toLowerCase();
-
-                if (spokenText.contains(VOICE_PASSWORD.toLowerCase()))
-                    updateConditionStatus("Voice Command", "✔ Password matched", true);
-                else
-                    updateConditionStatus("Voice Command", "❌ Wrong Password", false);
-            }
-        }
     }
 
     @Override
@@ -257,13 +461,56 @@ public class MainActivity extends AppCompatActivity {
                     Toast.makeText(this, "Microphone permission is required to use voice command", Toast.LENGTH_SHORT).show();
                 }
                 break;
+
+            case REQUEST_CODE_RECORD_KEYWORD:
+                if (PermissionUtils.allPermissionGranted(grantResults))
+                    voiceCommandHandler.recordKeyword();
+                else
+                    Toast.makeText(this, "Microphone permission is required to record the passphrase", Toast.LENGTH_SHORT).show();
+                break;
         }
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (!conditionsBound)
+            return;
+
+        // a check stopped on pause left the row as not checked
+        if (bluetoothManager != null)
+            bluetoothManager.publishKnownDevice();
+    }
+
     @Override
     protected void onPause() {
         super.onPause();
-        sensorHandler.stopAll();
-        bluetoothManager.stopDiscovery();
+        if (!conditionsBound)
+            return;
+
+        if (bluetoothManager != null)
+            bluetoothManager.stopDiscovery();
+        if (voiceCommandHandler != null)
+            voiceCommandHandler.stopListening();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // a cancelled startup never reaches its finish listener, which is what shuts the pool down
+        startup.cancel();
+        startupPool.shutdownNow();
+
+        // startup may have stopped anywhere, release whatever it created
+        conditionEvents.unsubscribe(conditionEventSubscriber);
+        conditionEvents.unsubscribe(conditionEventLogger);
+        if (policyEngine != null)
+            policyEngine.stop();
+        if (sensorHandler != null)
+            sensorHandler.release();
+        if (bluetoothManager != null)
+            bluetoothManager.release();
+        if (voiceCommandHandler != null)
+            voiceCommandHandler.release();
     }
 }
\ No newline at end of file
@@ -1,6 +1,5 @@
 package com.example.smart_login_conditions.adapters;
 
-import android.annotation.SuppressLint;
 import android.graphics.Color;
 import android.os.Handler;
 import android.os.Looper;
@@ -11,33 +10,79 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
-import androidx.appcompat.widget.AppCompatEditText;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.smart_login_conditions.databinding.ItemConditionBinding;
 import com.example.smart_login_conditions.interfaces.ConditionActionListener;
-import com.example.smart_login_conditions.models.Condition;
-import com.example.smart_login_conditions.utils.PermissionUtils;
+import com.example.smart_login_conditions.models.ConditionId;
+import com.example.smart_login_conditions.models.ConditionSnapshot;
+import com.example.smart_login_conditions.utils.DebouncedInputMatcher;
 
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 
-public class ConditionAdapter extends RecyclerView.Adapter<ConditionAdapter.ConditionViewHolder> {
+public class ConditionAdapter extends ListAdapter<ConditionSnapshot, ConditionAdapter.ConditionViewHolder> {
+
+    public enum Change {
+        STATUS,
+        PASSED,
+        EXPECTED_INPUT
+    }
+
+    private static final int COLOR_PASSED = Color.parseColor("#4CAF50");
+    private static final int COLOR_FAILED = Color.parseColor("#F44336");
+    private static final String NO_RECENT_CALL_STATUS = "❌ No recent call";
+
+    private static final DiffUtil.ItemCallback<ConditionSnapshot> DIFF_CALLBACK = new DiffUtil.ItemCallback<ConditionSnapshot>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ConditionSnapshot oldItem, @NonNull ConditionSnapshot newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ConditionSnapshot oldItem, @NonNull ConditionSnapshot newItem) {
+            return oldItem == newItem || (oldItem.isPassed() == newItem.isPassed()
+                    && oldItem.hasSameStatus(newItem)
+                    && oldItem.hasSameExpectedInput(newItem));
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull ConditionSnapshot oldItem, @NonNull ConditionSnapshot newItem) {
+            EnumSet<Change> changes = EnumSet.noneOf(Change.class);
+            if (!oldItem.hasSameStatus(newItem))
+                changes.add(Change.STATUS);
+            if (oldItem.isPassed() != newItem.isPassed())
+                changes.add(Change.PASSED);
+            if (!oldItem.hasSameExpectedInput(newItem))
+                changes.add(Change.EXPECTED_INPUT);
+            return changes;
+        }
+    };
 
-    private List<Condition> conditionList;
     private final ConditionActionListener listener;
-    private String lastCallerName;
-    private final Map<String, String> inputValues = new HashMap<>();
+    private final Map<ConditionId, String> inputValues = new EnumMap<>(ConditionId.class);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final DebouncedInputMatcher.Scheduler mainScheduler = new DebouncedInputMatcher.Scheduler() {
+        @Override
+        public void schedule(Runnable task, long delayMs) {
+            mainHandler.postDelayed(task, delayMs);
+        }
 
-    public ConditionAdapter(List<Condition> conditionList, ConditionActionListener listener) {
-        this.conditionList = conditionList;
-        this.listener = listener;
-    }
+        @Override
+        public void cancel(Runnable task) {
+            mainHandler.removeCallbacks(task);
+        }
+    };
 
-    public void setLastCallerName(String name) {
-        this.lastCallerName = name;
-        notifyDataSetChanged();
+    public ConditionAdapter(ConditionActionListener listener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
     }
 
     @NonNull
@@ -45,100 +90,140 @@ public class ConditionAdapter extends RecyclerView.Adapter<ConditionAdapter.Cond
     public ConditionViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         LayoutInflater inflater = LayoutInflater.from(parent.getContext());
         ItemConditionBinding binding = ItemConditionBinding.inflate(inflater, parent, false);
-        return new ConditionViewHolder(binding);
+
+        DebouncedInputMatcher inputMatcher = new DebouncedInputMatcher(mainScheduler, DebouncedInputMatcher.DEFAULT_DELAY_MS);
+        inputMatcher.setOnMatchResultListener((id, input, matched) -> listener.onInputMatched(id, matched));
+        return new ConditionViewHolder(binding, inputMatcher, inputValues);
     }
 
-    @SuppressLint("SetTextI18n")
     @Override
     public void onBindViewHolder(@NonNull ConditionViewHolder holder, int position) {
-        Condition condition = conditionList.get(position);
+        ConditionSnapshot condition = getItem(position);
         holder.binding.conditionTXTName.setText(condition.getName());
-        holder.binding.conditionTXTStatus.setText(condition.getStatus());
-
 
         switch (condition.getType()) {
             case ACTION_BUTTON:
                 holder.binding.conditionBTNAction.setVisibility(View.VISIBLE);
                 holder.binding.conditionETInput.setVisibility(View.GONE);
+                holder.input.unbind();
                 break;
 
             case INPUT_FIELD:
                 holder.binding.conditionETInput.setVisibility(View.VISIBLE);
                 holder.binding.conditionBTNAction.setVisibility(View.GONE);
 
-                if (condition.getName().equals("Call Match")) {
-                    if (lastCallerName == null || lastCallerName.isEmpty()) {
-                        holder.binding.conditionETInput.setHint("No recent caller");
-                        holder.binding.conditionTXTStatus.setText("❌ No recent call");
-                        holder.binding.conditionTXTStatus.setTextColor(Color.parseColor("#F44336"));
-                    } else {
-                        holder.binding.conditionETInput.setHint("Enter caller name...");
-                        holder.binding.conditionETInput.setEnabled(true);
-
-                        String currentValue = inputValues.get(condition.getName());
-                        if (currentValue != null) {
-                            holder.binding.conditionETInput.setText(currentValue);
-                        } else {
-                            holder.binding.conditionETInput.setText("");
-                        }
-
-                        holder.binding.conditionETInput.addTextChangedListener(new TextWatcher() {
-                            @Override
-                            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
-                            }
-
-                            @Override
-                            public void onTextChanged(CharSequence s, int start, int before, int count) {
-                                inputValues.put(condition.getName(), s.toString().trim());
-
-                                boolean passed = s.toString().trim().equalsIgnoreCase(lastCallerName);
-                                condition.setPassed(passed);
-                                condition.setStatus(passed ?
-                                        "✔ Password matched" :
-                                        "❌ Incorrect password");
-
-                                holder.binding.conditionTXTStatus.setText(condition.getStatus());
-                                holder.binding.conditionTXTStatus.setTextColor(
-                                        passed ? Color.parseColor("#4CAF50") : Color.parseColor("#F44336")
-                                );
-                            }
-
-                            @Override
-                            public void afterTextChanged(Editable s) {
-                            }
-                        });
-                    }
+                if (condition.getId() == ConditionId.CALL_MATCH) {
+                    holder.input.bind(condition.getId());
+                    bindExpectedInput(holder, condition);
+                } else {
+                    holder.input.unbind();
                 }
                 break;
             case AUTOMATIC:
                 holder.binding.conditionETInput.setVisibility(View.GONE);
                 holder.binding.conditionBTNAction.setVisibility(View.GONE);
+                holder.input.unbind();
                 break;
         }
 
-        holder.binding.conditionTXTStatus.setText(condition.getStatus());
-        holder.binding.conditionTXTStatus.setTextColor(
-                condition.isPassed() ? Color.parseColor("#4CAF50") : Color.parseColor("#F44336")
-        );
+        bindStatus(holder, condition);
+        bindPassed(holder, condition);
 
         holder.binding.conditionBTNAction.setOnClickListener(v ->
-                listener.onActionClicked(condition));
+                listener.onActionClicked(condition.getId()));
+        holder.binding.conditionBTNAction.setOnLongClickListener(v ->
+                listener.onActionLongClicked(condition.getId()));
+
+        holder.binding.conditionETInput.setOnClickListener(v -> listener.onActionClicked(condition.getId()));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onBindViewHolder(@NonNull ConditionViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        ConditionSnapshot condition = getItem(position);
+        for (Object payload : payloads) {
+            for (Change change : (EnumSet<Change>) payload) {
+                switch (change) {
+                    case STATUS:
+                        bindStatus(holder, condition);
+                        break;
+                    case PASSED:
+                        bindPassed(holder, condition);
+                        break;
+                    case EXPECTED_INPUT:
+                        bindExpectedInput(holder, condition);
+                        bindStatus(holder, condition);
+                        bindPassed(holder, condition);
+                        break;
+                }
+            }
+        }
+    }
 
-        holder.binding.conditionETInput.setOnClickListener(v ->listener.onActionClicked(condition));
+    private void bindStatus(ConditionViewHolder holder, ConditionSnapshot condition) {
+        holder.binding.conditionTXTStatus.setText(isMissingCaller(condition)
+                ? NO_RECENT_CALL_STATUS : condition.getStatus());
+    }
+
+    private void bindPassed(ConditionViewHolder holder, ConditionSnapshot condition) {
+        boolean passed = condition.isPassed() && !isMissingCaller(condition);
+        holder.binding.conditionTXTStatus.setTextColor(passed ? COLOR_PASSED : COLOR_FAILED);
+    }
+
+    private static boolean isMissingCaller(ConditionSnapshot condition) {
+        return condition.getId() == ConditionId.CALL_MATCH
+                && (condition.getExpectedInput() == null || condition.getExpectedInput().isEmpty());
+    }
 
+    private void bindExpectedInput(ConditionViewHolder holder, ConditionSnapshot condition) {
+        holder.input.bindExpectedInput(condition.getId(), condition.getExpectedInput());
     }
 
     @Override
-    public int getItemCount() {
-        return conditionList.size();
+    public void onViewRecycled(@NonNull ConditionViewHolder holder) {
+        super.onViewRecycled(holder);
+        holder.input.unbind();
     }
 
-    public static class ConditionViewHolder extends RecyclerView.ViewHolder {
+    public static class ConditionViewHolder extends RecyclerView.ViewHolder
+            implements TextWatcher, ConditionInputBinder.InputView {
         ItemConditionBinding binding;
+        final ConditionInputBinder input;
 
-        public ConditionViewHolder(@NonNull ItemConditionBinding binding) {
+        public ConditionViewHolder(@NonNull ItemConditionBinding binding, DebouncedInputMatcher inputMatcher,
+                                   Map<ConditionId, String> inputValues) {
             super(binding.getRoot());
             this.binding = binding;
+            this.input = new ConditionInputBinder(this, inputMatcher, inputValues);
+            binding.conditionETInput.addTextChangedListener(this);
+        }
+
+        @Override
+        public void setText(CharSequence text) {
+            binding.conditionETInput.setText(text);
+        }
+
+        @Override
+        public void setHint(CharSequence hint) {
+            binding.conditionETInput.setHint(hint);
+        }
+
+        @Override
+        public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+        }
+
+        @Override
+        public void onTextChanged(CharSequence s, int start, int before, int count) {
+        }
+
+        @Override
+        public void afterTextChanged(Editable s) {
+            input.onTextChanged(s);
         }
     }
 }
@@ -0,0 +1,94 @@
+package com.example.smart_login_conditions.adapters;
+
+import com.example.smart_login_conditions.models.ConditionId;
+import com.example.smart_login_conditions.utils.DebouncedInputMatcher;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The text input of one condition row, apart from its views. Remembers what was typed per
+ * condition, so a rebound row shows it again, and feeds typing to the row's
+ * {@link DebouncedInputMatcher}. Text restored by a bind is not treated as typing. Typing is
+ * copied out of the input only when the row is unbound or bound again, not per keystroke. A new
+ * expected input matches what is already typed again.
+ */
+public class ConditionInputBinder {
+
+    public interface InputView {
+        void setText(CharSequence text);
+
+        void setHint(CharSequence hint);
+    }
+
+    private final InputView view;
+    private final DebouncedInputMatcher matcher;
+    // shared by every row of the adapter
+    private final Map<ConditionId, String> inputValues;
+
+    private ConditionId boundId;
+    // the live input text since the last bind, null if nothing was typed
+    private CharSequence typed;
+    private String expectedInput;
+    private boolean settingText;
+
+    public ConditionInputBinder(InputView view, DebouncedInputMatcher matcher, Map<ConditionId, String> inputValues) {
+        this.view = view;
+        this.matcher = matcher;
+        this.inputValues = inputValues;
+    }
+
+    /**
+     * Shows the text last typed for {@code id}.
+     */
+    public void bind(ConditionId id) {
+        saveTyped();
+        boundId = id;
+        String text = inputValues.get(id);
+        settingText = true;
+        view.setText(text != null ? text : "");
+        settingText = false;
+    }
+
+    public void bindExpectedInput(ConditionId id, String expectedInput) {
+        boolean hasCaller = expectedInput != null && !expectedInput.isEmpty();
+        view.setHint(hasCaller ? "Enter caller name..." : "No recent caller");
+        // the input stays enabled, tapping it is what asks for the call log permissions;
+        // without a caller there is just nothing to match against
+        boolean changed = !Objects.equals(this.expectedInput, expectedInput);
+        this.expectedInput = expectedInput;
+        if (!hasCaller) {
+            matcher.unbind();
+            return;
+        }
+
+        matcher.bind(id, expectedInput);
+        // what was typed for the previous caller has to be checked against this one
+        CharSequence text = typed != null ? typed : inputValues.get(id);
+        if (changed && id == boundId && text != null && text.length() > 0)
+            matcher.onInput(text);
+    }
+
+    public void unbind() {
+        saveTyped();
+        boundId = null;
+        matcher.unbind();
+    }
+
+    /**
+     * Call from the input's afterTextChanged.
+     */
+    public void onTextChanged(CharSequence text) {
+        if (settingText || boundId == null)
+            return;
+
+        typed = text;
+        matcher.onInput(text);
+    }
+
+    private void saveTyped() {
+        if (typed != null && boundId != null)
+            inputValues.put(boundId, typed.toString());
+        typed = null;
+    }
+}
@@ -1,7 +1,14 @@
 package com.example.smart_login_conditions.interfaces;
 
-import com.example.smart_login_conditions.models.Condition;
+import com.example.smart_login_conditions.models.ConditionId;
 
 public interface ConditionActionListener {
-    void onActionClicked(Condition condition);
+    void onActionClicked(ConditionId id);
+
+    /**
+     * @return whether the long press was handled
+     */
+    boolean onActionLongClicked(ConditionId id);
+
+    void onInputMatched(ConditionId id, boolean matched);
 }
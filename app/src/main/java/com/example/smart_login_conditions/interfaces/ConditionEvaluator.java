@@ -0,0 +1,63 @@
+package com.example.smart_login_conditions.interfaces;
+
+/**
+ * Drives a single login condition. Automatic conditions do their work in {@link #start()},
+ * user-triggered ones in {@link #onAction()}.
+ */
+public interface ConditionEvaluator {
+
+    default void start() {
+    }
+
+    default void onAction() {
+    }
+
+    default void stop() {
+    }
+
+    static ConditionEvaluator onAction(Runnable action) {
+        return new ConditionEvaluator() {
+            @Override
+            public void onAction() {
+                action.run();
+            }
+        };
+    }
+
+    static ConditionEvaluator onAction(Runnable action, Runnable stop) {
+        return new ConditionEvaluator() {
+            @Override
+            public void onAction() {
+                action.run();
+            }
+
+            @Override
+            public void stop() {
+                stop.run();
+            }
+        };
+    }
+
+    static ConditionEvaluator automatic(Runnable start) {
+        return new ConditionEvaluator() {
+            @Override
+            public void start() {
+                start.run();
+            }
+        };
+    }
+
+    static ConditionEvaluator automatic(Runnable start, Runnable stop) {
+        return new ConditionEvaluator() {
+            @Override
+            public void start() {
+                start.run();
+            }
+
+            @Override
+            public void stop() {
+                stop.run();
+            }
+        };
+    }
+}
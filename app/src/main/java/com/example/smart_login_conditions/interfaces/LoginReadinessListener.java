@@ -0,0 +1,5 @@
+package com.example.smart_login_conditions.interfaces;
+
+public interface LoginReadinessListener {
+    void onReadinessChanged(boolean ready);
+}
@@ -0,0 +1,8 @@
+package com.example.smart_login_conditions.interfaces;
+
+public interface SensorSampleListener {
+    /**
+     * {@code values} is only valid for the duration of the call, copy it to keep it.
+     */
+    void onSample(int sensorType, long timestampNs, float[] values, int valueCount);
+}
@@ -5,37 +5,67 @@ import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothDevice;
-import android.bluetooth.BluetoothProfile;
-import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.pm.PackageManager;
 import android.location.LocationManager;
 import android.os.Build;
 import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.RequiresApi;
 import androidx.core.app.ActivityCompat;
 
+import com.example.smart_login_conditions.models.StatusCode;
+import com.example.smart_login_conditions.utils.DeviceNameMatcher;
 import com.example.smart_login_conditions.utils.PermissionUtils;
 
-import java.util.List;
-
 @RequiresApi(api = Build.VERSION_CODES.S)
 public class BluetoothManager {
     private static final String TAG = "BluetoothManager";
 
     private final Context context;
     private final BluetoothAdapter bluetoothAdapter;
-    private final String targetDeviceName;
+    private final DeviceNameMatcher targetMatcher;
+    private final KnownDeviceCache knownDevices;
+
+    public enum ScanMode {
+        CLASSIC,
+        BLE
+    }
 
-    public interface BluetoothStatusListener {
-        void onStatusUpdate(String status, boolean isSuccess);
+    public interface ScanReportListener {
+        /**
+         * @param timeToFirstMatchMs time from scan start to the first match, or -1 if nothing matched
+         */
+        void onScanFinished(ScanMode mode, long timeToFirstMatchMs, long durationMs);
     }
 
-    private BluetoothStatusListener statusListener;
+    private final ConditionEventBus events = ConditionEventBus.getInstance();
+    private ScanReportListener scanReportListener;
+
+    private static final long KNOWN_DEVICE_TTL_MS = 5 * 60 * 1000;
+    private static final long CONNECTION_CHECK_DEADLINE_MS = 1500;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private ScanMode scanMode = ScanMode.BLE;
+    private ConnectedDeviceRace connectionRace;
+    // set by prefetchBondedDevices(), used by the next connection check only
+    private volatile Boolean prefetchedBondedMatch;
+    private final BluetoothScanCoordinator scanCoordinator;
+    private final BluetoothScanCoordinator.Listener scanListener = new BluetoothScanCoordinator.Listener() {
+        @Override
+        public void onDeviceFound(BluetoothDevice device, String name) {
+            rememberDevice(device, name);
+            events.publish(StatusCode.DEVICE_FOUND, name);
+        }
+
+        @Override
+        public void onNotFound() {
+            events.publish(StatusCode.DEVICE_NOT_FOUND);
+        }
+    };
 
     public static final int REQUEST_ENABLE_BT = 2001;
     public static final int REQUEST_CODE_BT_PERMISSIONS = 1001;
@@ -46,14 +76,28 @@ public class BluetoothManager {
             Manifest.permission.ACCESS_FINE_LOCATION
     };
 
-    public BluetoothManager(Context context, String targetDeviceName) {
+    public BluetoothManager(Context context, String... targetDeviceNames) {
         this.context = context;
-        this.targetDeviceName = targetDeviceName;
+        this.targetMatcher = new DeviceNameMatcher(targetDeviceNames);
         this.bluetoothAdapter = BluetoothAdapter.getDefaultAdapter();
+        this.knownDevices = new KnownDeviceCache(context, KNOWN_DEVICE_TTL_MS);
+        this.scanCoordinator = bluetoothAdapter == null ? null
+                : new BluetoothScanCoordinator(context, bluetoothAdapter, handler.getLooper(),
+                targetDeviceNames, targetMatcher);
+
+        if (scanCoordinator != null)
+            scanCoordinator.setReportListener((mode, timeToFirstMatchMs, durationMs) -> {
+                if (scanReportListener != null)
+                    scanReportListener.onScanFinished(mode, timeToFirstMatchMs, durationMs);
+            });
+    }
+
+    public void setScanReportListener(ScanReportListener listener) {
+        this.scanReportListener = listener;
     }
 
-    public void setStatusListener(BluetoothStatusListener listener) {
-        this.statusListener = listener;
+    public void setScanMode(ScanMode scanMode) {
+        this.scanMode = scanMode;
     }
 
     public boolean isBluetoothSupported() {
@@ -74,119 +118,129 @@ public class BluetoothManager {
         if (PermissionUtils.hasPermission((Activity) context, BLUETOOTH_PERMISSIONS)) {
             if (!isLocationEnabled()) {
                 PermissionUtils.showEnableLocationDialog((Activity) context);
-                updateStatus("❌ Location Off", false);
+                events.publish(StatusCode.LOCATION_OFF);
                 return;
             }
 
             if (!isBluetoothEnabled()) {
-                updateStatus("❌ Bluetooth Off", false);
+                events.publish(StatusCode.BLUETOOTH_OFF);
                 Intent enableBtIntent = new Intent(BluetoothAdapter.ACTION_REQUEST_ENABLE);
                 ((Activity) context).startActivityForResult(enableBtIntent, REQUEST_ENABLE_BT);
                 return;
             }
 
+            // a check is already in flight, its result will be published
+            if (connectionRace != null)
+                return;
+            if (scanCoordinator.isScanning()) {
+                scanForBluetoothDevices();
+                return;
+            }
+
+            if (resolveFromCache())
+                return;
+
             checkIfDeviceAlreadyConnected();
         } else {
             PermissionUtils.requestPermission((Activity) context, BLUETOOTH_PERMISSIONS, REQUEST_CODE_BT_PERMISSIONS);
         }
     }
 
-    @SuppressLint("MissingPermission")
-    private void checkIfDeviceAlreadyConnected() {
-        bluetoothAdapter.getProfileProxy(context, new BluetoothProfile.ServiceListener() {
-            @SuppressLint("MissingPermission")
-            @Override
-            public void onServiceConnected(int profile, BluetoothProfile proxy) {
-                List<BluetoothDevice> connectedDevices = proxy.getConnectedDevices();
-                boolean deviceFound = false;
-
-                for (BluetoothDevice device : connectedDevices) {
-                    if (device.getName() != null && device.getName().contains(targetDeviceName)) {
-                        updateStatus("✔ Connected to " + device.getName(), true);
-                        deviceFound = true;
-                        break;
-                    }
-                }
-
-                if (!deviceFound)
-                    scanForBluetoothDevices();
-
-                bluetoothAdapter.closeProfileProxy(profile, proxy);
-            }
+    /**
+     * Looks up the bonded devices ahead of the first connection check. Safe to call from a
+     * background thread; does nothing without the BLUETOOTH_CONNECT permission.
+     */
+    public void prefetchBondedDevices() {
+        if (!isBluetoothEnabled()
+                || context.checkSelfPermission(Manifest.permission.BLUETOOTH_CONNECT) != PackageManager.PERMISSION_GRANTED)
+            return;
 
-            @Override
-            public void onServiceDisconnected(int profile) {
-            }
-        }, BluetoothProfile.HEADSET);
+        prefetchedBondedMatch = ConnectedDeviceRace.hasBondedMatch(bluetoothAdapter, targetMatcher);
     }
 
-    @SuppressLint("MissingPermission")
-    private void scanForBluetoothDevices() {
-        updateStatus("🔍 Scanning...", false);
+    private boolean resolveFromCache() {
+        KnownDeviceCache.Entry known = knownDevices.findFresh(targetMatcher, System.currentTimeMillis());
+        if (known == null)
+            return false;
+
+        Log.d(TAG, "Resolved " + known.address + " from known device cache");
+        events.publish(StatusCode.DEVICE_SEEN_RECENTLY, known.name);
+        return true;
+    }
 
-        BroadcastReceiver receiver = new BroadcastReceiver() {
-            private boolean found = false;
+    private void rememberDevice(BluetoothDevice device, String name) {
+        knownDevices.put(device.getAddress(), name, System.currentTimeMillis());
+    }
 
+    private void checkIfDeviceAlreadyConnected() {
+        connectionRace = new ConnectedDeviceRace(context, bluetoothAdapter, handler, targetMatcher,
+                CONNECTION_CHECK_DEADLINE_MS, new ConnectedDeviceRace.Callback() {
             @Override
-            public void onReceive(Context context, Intent intent) {
-                String action = intent.getAction();
-
-                if (BluetoothDevice.ACTION_FOUND.equals(action)) {
-                    BluetoothDevice device = intent.getParcelableExtra(BluetoothDevice.EXTRA_DEVICE);
-                    if (device != null && device.getName() != null && device.getName().contains(targetDeviceName)) {
-                        found = true;
-                        updateStatus("✔ " + device.getName() + " Found", true);
-                    }
-                }
-
-                if (BluetoothAdapter.ACTION_DISCOVERY_FINISHED.equals(action)) {
-                    if (!found) {
-                        updateStatus("❌ Not Found", false);
-                    }
-
-                    try {
-                        context.unregisterReceiver(this);
-                    } catch (Exception ignored) {
-                        Log.w(TAG, "Receiver already unregistered");
-                    }
-
-                    if (bluetoothAdapter.isDiscovering()) {
-                        bluetoothAdapter.cancelDiscovery();
-                    }
-                }
+            public void onMatch(BluetoothDevice device, String name, int profile) {
+                connectionRace = null;
+                rememberDevice(device, name);
+                events.publish(StatusCode.DEVICE_CONNECTED, name);
             }
-        };
 
-        IntentFilter filter = new IntentFilter();
-        filter.addAction(BluetoothDevice.ACTION_FOUND);
-        filter.addAction(BluetoothAdapter.ACTION_DISCOVERY_FINISHED);
-        context.registerReceiver(receiver, filter);
+            @Override
+            public void onNoMatch() {
+                connectionRace = null;
+                scanForBluetoothDevices();
+            }
+        });
 
-        bluetoothAdapter.startDiscovery();
+        Boolean bondedMatch = prefetchedBondedMatch;
+        prefetchedBondedMatch = null;
+        if (bondedMatch != null)
+            connectionRace.setBondedMatch(bondedMatch);
+        connectionRace.start();
+    }
 
-        // set timeout to cancel discovery if it takes too long
-        new Handler().postDelayed(() -> {
-            if (bluetoothAdapter.isDiscovering()) {
-                bluetoothAdapter.cancelDiscovery();
-            }
-        }, 10000);
+    private void scanForBluetoothDevices() {
+        if (scanCoordinator.requestScan(scanMode, scanListener))
+            events.publish(StatusCode.BLUETOOTH_SCANNING);
     }
 
-    private void updateStatus(String status, boolean isSuccess) {
-        if (statusListener != null) {
-            statusListener.onStatusUpdate(status, isSuccess);
+    /**
+     * Stops a check in flight, which then shows as not checked; a finished result stays.
+     */
+    public void stopDiscovery() {
+        boolean checking = connectionRace != null;
+        if (connectionRace != null) {
+            connectionRace.cancel();
+            connectionRace = null;
+        }
+
+        if (scanCoordinator != null && scanCoordinator.isScanning()) {
+            checking = true;
+            scanCoordinator.cancel();
         }
+        if (checking)
+            events.publish(StatusCode.BLUETOOTH_IDLE);
     }
 
-    @SuppressLint("MissingPermission")
-    public void stopDiscovery() {
-        if (PermissionUtils.hasPermission((Activity) context, new String[]{Manifest.permission.BLUETOOTH_SCAN})) {
-            if (bluetoothAdapter != null && bluetoothAdapter.isDiscovering()) {
-                bluetoothAdapter.cancelDiscovery();
-            }
-        } else {
-            Log.w(TAG, "Skipping stopDiscovery: missing BLUETOOTH_SCAN permission");
+    /**
+     * Publishes the known device cache result again, e.g. when the screen comes back after a check
+     * was stopped. Does nothing without a fresh match or while a check is in flight.
+     */
+    public void publishKnownDevice() {
+        if (connectionRace != null || (scanCoordinator != null && scanCoordinator.isScanning()))
+            return;
+        resolveFromCache();
+    }
+
+    /**
+     * Stops everything in flight and drops all callbacks. Call from the owning activity's onDestroy.
+     */
+    public void release() {
+        if (connectionRace != null) {
+            connectionRace.cancel();
+            connectionRace = null;
         }
+
+        if (scanCoordinator != null)
+            scanCoordinator.release();
+        scanReportListener = null;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,336 @@
+package com.example.smart_login_conditions.managers;
+
+import android.annotation.SuppressLint;
+import android.bluetooth.BluetoothAdapter;
+import android.bluetooth.BluetoothDevice;
+import android.bluetooth.le.BluetoothLeScanner;
+import android.bluetooth.le.ScanCallback;
+import android.bluetooth.le.ScanFilter;
+import android.bluetooth.le.ScanRecord;
+import android.bluetooth.le.ScanResult;
+import android.bluetooth.le.ScanSettings;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.smart_login_conditions.utils.AddressSet;
+import com.example.smart_login_conditions.utils.DeviceNameMatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs at most one Bluetooth scan at a time. Requests that arrive while a scan is in flight join
+ * it and receive the same result. The BLE phase, the classic discovery fallback, their receiver
+ * and their timeouts all belong to the coordinator and live on the looper passed in, which must
+ * be the looper the coordinator is called from.
+ */
+class BluetoothScanCoordinator {
+
+    private static final String TAG = "BluetoothScanCoordinator";
+
+    private static final long CLASSIC_SCAN_TIMEOUT_MS = 10000;
+    private static final long BLE_SCAN_TIMEOUT_MS = 4000;
+    private static final int EXPECTED_DEVICES = 256;
+
+    interface Listener {
+        void onDeviceFound(BluetoothDevice device, String name);
+
+        void onNotFound();
+    }
+
+    interface ReportListener {
+        void onScanFinished(BluetoothManager.ScanMode mode, long timeToFirstMatchMs, long durationMs);
+    }
+
+    private final Context context;
+    private final BluetoothAdapter bluetoothAdapter;
+    private final Handler handler;
+    private final String[] targetDeviceNames;
+    private final DeviceNameMatcher targetMatcher;
+    // bonded targets by address, for filtering on the address and naming results that carry none
+    private final Map<String, String> bondedTargets = new HashMap<>();
+    private final AddressSet seenAddresses = new AddressSet(EXPECTED_DEVICES);
+    private final List<Listener> waiters = new ArrayList<>();
+    private final Runnable leScanTimeout = this::onLeScanTimeout;
+    private final Runnable discoveryTimeout = this::onDiscoveryTimeout;
+
+    private ReportListener reportListener;
+    private boolean inFlight;
+    private long scanStartedAt;
+    private ScanCallback leScanCallback;
+    private BroadcastReceiver discoveryReceiver;
+
+    BluetoothScanCoordinator(Context context, BluetoothAdapter bluetoothAdapter, Looper looper,
+                             String[] targetDeviceNames, DeviceNameMatcher targetMatcher) {
+        this.context = context;
+        this.bluetoothAdapter = bluetoothAdapter;
+        this.handler = new Handler(looper);
+        this.targetDeviceNames = targetDeviceNames;
+        this.targetMatcher = targetMatcher;
+    }
+
+    void setReportListener(ReportListener reportListener) {
+        this.reportListener = reportListener;
+    }
+
+    boolean isScanning() {
+        return inFlight;
+    }
+
+    /**
+     * Returns true if this request started a new scan, false if it joined the one in flight.
+     */
+    boolean requestScan(BluetoothManager.ScanMode mode, Listener listener) {
+        if (!waiters.contains(listener))
+            waiters.add(listener);
+
+        if (inFlight)
+            return false;
+
+        inFlight = true;
+        scanStartedAt = SystemClock.elapsedRealtime();
+        seenAddresses.clear();
+        if (mode != BluetoothManager.ScanMode.BLE || !startLeScan())
+            startClassicDiscovery();
+        return true;
+    }
+
+    /**
+     * Stops the scan in flight without notifying anyone: a cancelled scan found nothing only
+     * because it was stopped, so it must not report the device as missing.
+     */
+    void cancel() {
+        waiters.clear();
+        if (inFlight) {
+            stopRadio();
+            inFlight = false;
+        }
+    }
+
+    /**
+     * Like {@link #cancel}, and drops the report listener, for teardown.
+     */
+    void release() {
+        cancel();
+        reportListener = null;
+    }
+
+    @SuppressLint("MissingPermission")
+    private boolean startLeScan() {
+        BluetoothLeScanner scanner = bluetoothAdapter.getBluetoothLeScanner();
+        if (scanner == null)
+            return false;
+
+        // hardware filters wake us only for the exact target names and the bonded targets' addresses;
+        // names that merely contain a target are left to classic discovery, which sees every name
+        loadBondedTargets();
+        List<ScanFilter> filters = new ArrayList<>(targetDeviceNames.length + bondedTargets.size());
+        for (String name : targetDeviceNames)
+            filters.add(new ScanFilter.Builder().setDeviceName(name).build());
+        for (String address : bondedTargets.keySet())
+            filters.add(new ScanFilter.Builder().setDeviceAddress(address).build());
+        ScanSettings settings = new ScanSettings.Builder()
+                .setScanMode(ScanSettings.SCAN_MODE_LOW_LATENCY)
+                .setMatchMode(ScanSettings.MATCH_MODE_AGGRESSIVE)
+                .setNumOfMatches(ScanSettings.MATCH_NUM_ONE_ADVERTISEMENT)
+                .build();
+
+        leScanCallback = new ScanCallback() {
+            @Override
+            public void onScanResult(int callbackType, ScanResult result) {
+                if (leScanCallback != this)
+                    return;
+
+                BluetoothDevice device = result.getDevice();
+                String address = device.getAddress();
+                ScanRecord record = result.getScanRecord();
+                String name = record != null ? record.getDeviceName() : null;
+                if (name == null)
+                    name = bondedTargets.get(address);
+
+                if (isTarget(address, name)) {
+                    report(BluetoothManager.ScanMode.BLE, SystemClock.elapsedRealtime() - scanStartedAt);
+                    stopRadio();
+                    complete(device, name);
+                }
+            }
+
+            @Override
+            public void onScanFailed(int errorCode) {
+                if (leScanCallback != this)
+                    return;
+
+                Log.w(TAG, "BLE scan failed: " + errorCode + ", falling back to discovery");
+                stopLeScan();
+                report(BluetoothManager.ScanMode.BLE, -1);
+                startClassicDiscovery();
+            }
+        };
+
+        scanner.startScan(filters, settings, leScanCallback);
+        handler.postDelayed(leScanTimeout, BLE_SCAN_TIMEOUT_MS);
+        return true;
+    }
+
+    private void onLeScanTimeout() {
+        Log.d(TAG, "BLE scan found nothing, falling back to discovery");
+        stopLeScan();
+        report(BluetoothManager.ScanMode.BLE, -1);
+        startClassicDiscovery();
+    }
+
+    @SuppressLint("MissingPermission")
+    private void startClassicDiscovery() {
+        discoveryReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                if (discoveryReceiver != this)
+                    return;
+
+                String action = intent.getAction();
+
+                if (BluetoothDevice.ACTION_FOUND.equals(action)) {
+                    BluetoothDevice device = intent.getParcelableExtra(BluetoothDevice.EXTRA_DEVICE);
+                    if (device == null)
+                        return;
+
+                    // the broadcast carries the name, device.getName() would be another binder call
+                    String name = intent.getStringExtra(BluetoothDevice.EXTRA_NAME);
+                    if (isTarget(device.getAddress(), name)) {
+                        report(BluetoothManager.ScanMode.CLASSIC, SystemClock.elapsedRealtime() - scanStartedAt);
+                        // no need to hold the radio for the rest of the inquiry
+                        stopRadio();
+                        complete(device, name);
+                    }
+                } else if (BluetoothAdapter.ACTION_DISCOVERY_FINISHED.equals(action)) {
+                    report(BluetoothManager.ScanMode.CLASSIC, -1);
+                    stopRadio();
+                    complete(null, null);
+                }
+            }
+        };
+
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(BluetoothDevice.ACTION_FOUND);
+        filter.addAction(BluetoothAdapter.ACTION_DISCOVERY_FINISHED);
+        context.registerReceiver(discoveryReceiver, filter, null, handler);
+
+        if (!bluetoothAdapter.startDiscovery()) {
+            Log.w(TAG, "startDiscovery() was rejected");
+            report(BluetoothManager.ScanMode.CLASSIC, -1);
+            stopRadio();
+            complete(null, null);
+            return;
+        }
+        handler.postDelayed(discoveryTimeout, CLASSIC_SCAN_TIMEOUT_MS);
+    }
+
+    @SuppressLint("MissingPermission")
+    private void loadBondedTargets() {
+        bondedTargets.clear();
+        Set<BluetoothDevice> bonded = bluetoothAdapter.getBondedDevices();
+        if (bonded == null)
+            return;
+
+        for (BluetoothDevice device : bonded) {
+            String name = device.getName();
+            if (targetMatcher.matches(name))
+                bondedTargets.put(device.getAddress(), name);
+        }
+    }
+
+    /**
+     * Checks a found device against the targets. Repeat reports of an address are dropped before
+     * anything else, and each address is matched once per scan; devices that have not reported a
+     * name yet are not remembered, so a later report with a name counts.
+     */
+    private boolean isTarget(String address, String name) {
+        long packed = AddressSet.parse(address);
+        if (packed != -1 && seenAddresses.contains(packed))
+            return false;
+        if (name == null)
+            return false;
+
+        if (packed != -1)
+            seenAddresses.add(packed);
+        return targetMatcher.matches(name);
+    }
+
+    private void onDiscoveryTimeout() {
+        report(BluetoothManager.ScanMode.CLASSIC, -1);
+        stopRadio();
+        complete(null, null);
+    }
+
+    @SuppressLint("MissingPermission")
+    private void stopLeScan() {
+        handler.removeCallbacks(leScanTimeout);
+        if (leScanCallback == null)
+            return;
+
+        ScanCallback callback = leScanCallback;
+        leScanCallback = null;
+        try {
+            BluetoothLeScanner scanner = bluetoothAdapter.getBluetoothLeScanner();
+            if (scanner != null && bluetoothAdapter.isEnabled())
+                scanner.stopScan(callback);
+        } catch (SecurityException e) {
+            Log.w(TAG, "Cannot stop BLE scan: missing BLUETOOTH_SCAN permission");
+        }
+    }
+
+    @SuppressLint("MissingPermission")
+    private void stopDiscovery() {
+        handler.removeCallbacks(discoveryTimeout);
+        if (discoveryReceiver == null)
+            return;
+
+        try {
+            context.unregisterReceiver(discoveryReceiver);
+        } catch (IllegalArgumentException ignored) {
+            Log.w(TAG, "Receiver already unregistered");
+        }
+        discoveryReceiver = null;
+
+        try {
+            if (bluetoothAdapter.isDiscovering())
+                bluetoothAdapter.cancelDiscovery();
+        } catch (SecurityException e) {
+            Log.w(TAG, "Cannot cancel discovery: missing BLUETOOTH_SCAN permission");
+        }
+    }
+
+    private void stopRadio() {
+        stopLeScan();
+        stopDiscovery();
+    }
+
+    private void complete(BluetoothDevice device, String name) {
+        inFlight = false;
+        Listener[] listeners = waiters.toArray(new Listener[0]);
+        waiters.clear();
+
+        for (Listener listener : listeners) {
+            if (device != null)
+                listener.onDeviceFound(device, name);
+            else
+                listener.onNotFound();
+        }
+    }
+
+    private void report(BluetoothManager.ScanMode mode, long timeToFirstMatchMs) {
+        long durationMs = SystemClock.elapsedRealtime() - scanStartedAt;
+        Log.i(TAG, mode + " scan finished in " + durationMs + "ms, first match after " + timeToFirstMatchMs + "ms");
+        if (reportListener != null)
+            reportListener.onScanFinished(mode, timeToFirstMatchMs, durationMs);
+    }
+}
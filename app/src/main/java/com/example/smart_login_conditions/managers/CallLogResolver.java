@@ -0,0 +1,132 @@
+package com.example.smart_login_conditions.managers;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Bundle;
+import android.provider.CallLog;
+import android.util.Log;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds the most recent incoming call in the call log, for devices that leave
+ * EXTRA_INCOMING_NUMBER out of the phone state broadcast.
+ *
+ * Each query reads four columns of at most one row above the last call id already seen, so it
+ * never scans the whole log. A ContentObserver marks the result stale; until the log changes the
+ * last result is returned without a query.
+ * Blocking, call it from {@link ContactNameResolver#getExecutor()}.
+ */
+public class CallLogResolver {
+
+    private static final String TAG = "CallLogResolver";
+
+    // the call log provider only overrides the legacy query(), which drops QUERY_ARG_LIMIT; it does
+    // apply the limit parameter of the URI
+    private static final Uri LATEST_CALL_URI = CallLog.Calls.CONTENT_URI.buildUpon()
+            .appendQueryParameter(CallLog.Calls.LIMIT_PARAM_KEY, "1")
+            .build();
+
+    private static final String[] PROJECTION = new String[]{
+            CallLog.Calls._ID,
+            CallLog.Calls.NUMBER,
+            CallLog.Calls.CACHED_NAME,
+            CallLog.Calls.DATE
+    };
+
+    private static final String SELECTION = CallLog.Calls._ID + " > ? AND " + CallLog.Calls.TYPE + " IN ("
+            + CallLog.Calls.INCOMING_TYPE + ","
+            + CallLog.Calls.MISSED_TYPE + ","
+            + CallLog.Calls.REJECTED_TYPE + ","
+            + CallLog.Calls.BLOCKED_TYPE + ","
+            + CallLog.Calls.ANSWERED_EXTERNALLY_TYPE + ")";
+
+    public static class Call {
+        public final long id;
+        public final String number;
+        public final String cachedName;
+        public final long dateMs;
+
+        Call(long id, String number, String cachedName, long dateMs) {
+            this.id = id;
+            this.number = number;
+            this.cachedName = cachedName;
+            this.dateMs = dateMs;
+        }
+    }
+
+    private static CallLogResolver instance;
+
+    private final ContentResolver contentResolver;
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+
+    // confined to the executor thread
+    private Call latest;
+
+    public static synchronized CallLogResolver getInstance(Context context) {
+        if (instance == null)
+            instance = new CallLogResolver(context.getApplicationContext());
+        return instance;
+    }
+
+    private CallLogResolver(Context context) {
+        contentResolver = context.getContentResolver();
+        contentResolver.registerContentObserver(CallLog.Calls.CONTENT_URI, true, new ContentObserver(null) {
+            @Override
+            public void onChange(boolean selfChange) {
+                synchronized (stale) {
+                    stale.set(true);
+                    stale.notifyAll();
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits up to {@code timeoutMs} for an incoming call dated at or after {@code sinceMs}. The call
+     * log is written shortly after the call ends, so the entry may not be there yet when asked.
+     */
+    public Call awaitIncomingCallSince(long sinceMs, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutMs * 1_000_000;
+        while (true) {
+            Call call = latestIncomingCall();
+            if (call != null && call.dateMs >= sinceMs)
+                return call;
+
+            synchronized (stale) {
+                long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+                if (remainingMs <= 0)
+                    return null;
+                if (!stale.get())
+                    stale.wait(remainingMs);
+            }
+        }
+    }
+
+    /**
+     * Returns the newest incoming, missed or rejected call, or null if there is none.
+     */
+    public Call latestIncomingCall() {
+        if (!stale.getAndSet(false))
+            return latest;
+
+        Bundle queryArgs = new Bundle();
+        queryArgs.putString(ContentResolver.QUERY_ARG_SQL_SELECTION, SELECTION);
+        queryArgs.putStringArray(ContentResolver.QUERY_ARG_SQL_SELECTION_ARGS,
+                new String[]{String.valueOf(latest != null ? latest.id : -1)});
+        queryArgs.putStringArray(ContentResolver.QUERY_ARG_SORT_COLUMNS, new String[]{CallLog.Calls._ID});
+        queryArgs.putInt(ContentResolver.QUERY_ARG_SORT_DIRECTION, ContentResolver.QUERY_SORT_DIRECTION_DESCENDING);
+
+        try (Cursor cursor = contentResolver.query(LATEST_CALL_URI, PROJECTION, queryArgs, null)) {
+            if (cursor != null && cursor.moveToFirst())
+                latest = new Call(cursor.getLong(0), cursor.getString(1), cursor.getString(2), cursor.getLong(3));
+        } catch (SecurityException e) {
+            // retried on the next call log change
+            Log.w(TAG, "Missing READ_CALL_LOG permission");
+        }
+        return latest;
+    }
+}
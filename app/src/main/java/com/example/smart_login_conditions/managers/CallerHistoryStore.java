@@ -0,0 +1,151 @@
+package com.example.smart_login_conditions.managers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Ring file of the last few callers, memory-mapped so reads never go through a stream.
+ *
+ * Layout (little endian): a header of magic, version, capacity and the total number of appended
+ * entries, followed by {@code capacity} fixed-size records of
+ * {@code long timestampMs, byte nameLength, byte[MAX_NAME_BYTES] utf8Name}.
+ * The count is written after the record, so a reader never sees a half-written entry.
+ */
+public class CallerHistoryStore {
+
+    static final int MAGIC = 0x48434C53; // "SLCH"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 2 + 8;
+    static final int MAX_NAME_BYTES = 63;
+    static final int RECORD_SIZE = 8 + 1 + MAX_NAME_BYTES;
+
+    private static final int COUNT_OFFSET = 8;
+
+    public static final int DEFAULT_CAPACITY = 32;
+    public static final String FILE_NAME = "caller_history.bin";
+
+    public static class Entry {
+        public final String name;
+        public final long timestampMs;
+
+        public Entry(String name, long timestampMs) {
+            this.name = name;
+            this.timestampMs = timestampMs;
+        }
+    }
+
+    private static CallerHistoryStore instance;
+
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final byte[] nameBytes = new byte[MAX_NAME_BYTES];
+
+    /**
+     * @param dir usually {@code Context.getFilesDir()}
+     */
+    public static synchronized CallerHistoryStore getInstance(File dir) throws IOException {
+        if (instance == null)
+            instance = new CallerHistoryStore(new File(dir, FILE_NAME), DEFAULT_CAPACITY);
+        return instance;
+    }
+
+    public CallerHistoryStore(File file, int capacity) throws IOException {
+        if (capacity < 1 || capacity > Short.MAX_VALUE)
+            throw new IllegalArgumentException("capacity: " + capacity);
+
+        this.capacity = capacity;
+        long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION || buffer.getShort(6) != capacity) {
+            buffer.putInt(0, MAGIC).putShort(4, VERSION).putShort(6, (short) capacity);
+            buffer.putLong(COUNT_OFFSET, 0);
+        }
+    }
+
+    public synchronized void append(String name, long timestampMs) {
+        long count = buffer.getLong(COUNT_OFFSET);
+        int offset = recordOffset(count);
+
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(encoded.length, MAX_NAME_BYTES);
+        // don't cut a multi-byte character in half
+        while (length < encoded.length && length > 0 && (encoded[length] & 0xC0) == 0x80)
+            length--;
+
+        buffer.putLong(offset, timestampMs);
+        buffer.put(offset + 8, (byte) length);
+        for (int i = 0; i < length; i++)
+            buffer.put(offset + 9 + i, encoded[i]);
+
+        buffer.putLong(COUNT_OFFSET, count + 1);
+    }
+
+    /**
+     * Number of readable entries, at most the capacity.
+     */
+    public synchronized int size() {
+        return (int) Math.min(buffer.getLong(COUNT_OFFSET), capacity);
+    }
+
+    /**
+     * @param age 0 for the newest entry, up to {@link #size()} - 1
+     */
+    public synchronized Entry get(int age) {
+        long count = buffer.getLong(COUNT_OFFSET);
+        if (age < 0 || age >= Math.min(count, capacity))
+            return null;
+
+        int offset = recordOffset(count - 1 - age);
+        int length = buffer.get(offset + 8) & 0xFF;
+        for (int i = 0; i < length; i++)
+            nameBytes[i] = buffer.get(offset + 9 + i);
+        return new Entry(new String(nameBytes, 0, length, StandardCharsets.UTF_8), buffer.getLong(offset));
+    }
+
+    public Entry latest() {
+        return get(0);
+    }
+
+    public synchronized long latestTimestamp() {
+        long count = buffer.getLong(COUNT_OFFSET);
+        return count == 0 ? -1 : buffer.getLong(recordOffset(count - 1));
+    }
+
+    /**
+     * True if anyone called at or after {@code sinceMs}.
+     */
+    public boolean hasCallSince(long sinceMs) {
+        return latestTimestamp() >= sinceMs;
+    }
+
+    /**
+     * True if {@code name} called at or after {@code sinceMs}. Walks back from the newest entry and
+     * stops at the first older one.
+     */
+    public synchronized boolean hasCallFrom(String name, long sinceMs) {
+        int size = size();
+        for (int age = 0; age < size; age++) {
+            Entry entry = get(age);
+            if (entry.timestampMs < sinceMs)
+                return false;
+            if (entry.name.equals(name))
+                return true;
+        }
+        return false;
+    }
+
+    private int recordOffset(long index) {
+        return HEADER_SIZE + (int) (index % capacity) * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.smart_login_conditions.managers;
+
+import com.example.smart_login_conditions.models.ConditionId;
+import com.example.smart_login_conditions.models.StatusCode;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carries every condition status change, from the sensors, Bluetooth, voice recognition and
+ * incoming calls, to any number of subscribers such as the UI, metrics or an audit log.
+ *
+ * Subscribers are called on the publishing thread. Publishing allocates nothing: the event handed
+ * to subscribers is taken from a preallocated ring and reused, so it is only valid for the duration
+ * of the call; copy what you need to keep it.
+ */
+public class ConditionEventBus {
+
+    public interface Subscriber {
+        void onConditionEvent(ConditionEvent event);
+    }
+
+    public static final class ConditionEvent {
+        private long sequence;
+        private long timeNs;
+        private StatusCode code;
+        private String argument;
+
+        private ConditionEvent() {
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        // System.nanoTime() at publication
+        public long getTimeNs() {
+            return timeNs;
+        }
+
+        public ConditionId getCondition() {
+            return code.getCondition();
+        }
+
+        public StatusCode getCode() {
+            return code;
+        }
+
+        public String getArgument() {
+            return argument;
+        }
+
+        public boolean isPassed() {
+            return code.isPassed();
+        }
+
+        /**
+         * Builds the status text; for the UI only.
+         */
+        public String format() {
+            return code.format(argument);
+        }
+
+        @Override
+        public String toString() {
+            return "#" + sequence + " " + code + (argument != null ? "(" + argument + ")" : "");
+        }
+    }
+
+    // bounds how many publications can be in flight at once, across threads and nested publishes
+    private static final int RING_SIZE = 32;
+    private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    private static ConditionEventBus instance;
+
+    private final ConditionEvent[] ring = new ConditionEvent[RING_SIZE];
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile Subscriber[] subscribers = NO_SUBSCRIBERS;
+
+    public static synchronized ConditionEventBus getInstance() {
+        if (instance == null)
+            instance = new ConditionEventBus();
+        return instance;
+    }
+
+    public ConditionEventBus() {
+        for (int i = 0; i < RING_SIZE; i++)
+            ring[i] = new ConditionEvent();
+    }
+
+    public synchronized void subscribe(Subscriber subscriber) {
+        Subscriber[] current = subscribers;
+        for (Subscriber existing : current) {
+            if (existing == subscriber)
+                return;
+        }
+
+        Subscriber[] updated = new Subscriber[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = subscriber;
+        subscribers = updated;
+    }
+
+    public synchronized void unsubscribe(Subscriber subscriber) {
+        Subscriber[] current = subscribers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != subscriber)
+                continue;
+
+            Subscriber[] updated = new Subscriber[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, i);
+            System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+            subscribers = updated;
+            return;
+        }
+    }
+
+    public void publish(StatusCode code) {
+        publish(code, null);
+    }
+
+    public void publish(StatusCode code, String argument) {
+        Subscriber[] targets = subscribers;
+        if (targets.length == 0)
+            return;
+
+        long seq = sequence.getAndIncrement();
+        ConditionEvent event = ring[(int) seq & (RING_SIZE - 1)];
+        event.sequence = seq;
+        event.timeNs = System.nanoTime();
+        event.code = code;
+        event.argument = argument;
+
+        for (Subscriber subscriber : targets)
+            subscriber.onConditionEvent(event);
+    }
+}
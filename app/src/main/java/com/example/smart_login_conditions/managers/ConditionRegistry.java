@@ -0,0 +1,122 @@
+package com.example.smart_login_conditions.managers;
+
+import com.example.smart_login_conditions.interfaces.ConditionEvaluator;
+import com.example.smart_login_conditions.models.Condition;
+import com.example.smart_login_conditions.models.ConditionId;
+import com.example.smart_login_conditions.models.ConditionSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the registered login conditions in display order and resolves a {@link ConditionId}
+ * to its list position with a single array read.
+ */
+public class ConditionRegistry {
+
+    public interface OnConditionsChangedListener {
+        void onConditionsChanged(List<ConditionSnapshot> snapshots);
+    }
+
+    private static final String INITIAL_STATUS = "Waiting...";
+
+    private final List<Condition> conditions = new ArrayList<>();
+    private final List<Condition> readOnlyConditions = Collections.unmodifiableList(conditions);
+    private final List<ConditionSnapshot> snapshots = new ArrayList<>();
+    private final int[] slots = new int[ConditionId.COUNT];
+    private final ConditionEvaluator[] evaluators = new ConditionEvaluator[ConditionId.COUNT];
+
+    private OnConditionsChangedListener changedListener;
+
+    public ConditionRegistry() {
+        Arrays.fill(slots, -1);
+    }
+
+    public void setOnConditionsChangedListener(OnConditionsChangedListener listener) {
+        this.changedListener = listener;
+    }
+
+    public Condition register(ConditionId id, ConditionEvaluator evaluator) {
+        if (slots[id.ordinal()] != -1)
+            throw new IllegalStateException(id + " is already registered");
+
+        Condition condition = new Condition(id, INITIAL_STATUS, false);
+        slots[id.ordinal()] = conditions.size();
+        evaluators[id.ordinal()] = evaluator;
+        conditions.add(condition);
+        snapshots.add(condition.snapshot());
+        return condition;
+    }
+
+    public boolean isRegistered(ConditionId id) {
+        return slots[id.ordinal()] != -1;
+    }
+
+    public int indexOf(ConditionId id) {
+        return slots[id.ordinal()];
+    }
+
+    public Condition get(ConditionId id) {
+        int slot = slots[id.ordinal()];
+        return slot == -1 ? null : conditions.get(slot);
+    }
+
+    public List<Condition> getConditions() {
+        return readOnlyConditions;
+    }
+
+    /**
+     * Returns a new list for the UI. Only the rows touched since the last call hold new
+     * snapshot instances, the rest are shared.
+     */
+    public List<ConditionSnapshot> snapshot() {
+        return new ArrayList<>(snapshots);
+    }
+
+    public void update(ConditionId id, String status, boolean passed) {
+        int slot = slots[id.ordinal()];
+        if (slot == -1)
+            return;
+
+        Condition condition = conditions.get(slot);
+        condition.setStatus(status);
+        condition.setPassed(passed);
+        publish(slot, condition);
+    }
+
+    public void setExpectedInput(ConditionId id, String expectedInput) {
+        int slot = slots[id.ordinal()];
+        if (slot == -1)
+            return;
+
+        Condition condition = conditions.get(slot);
+        condition.setExpectedInput(expectedInput);
+        publish(slot, condition);
+    }
+
+    public void dispatchAction(ConditionId id) {
+        ConditionEvaluator evaluator = evaluators[id.ordinal()];
+        if (evaluator != null)
+            evaluator.onAction();
+    }
+
+    public void start(ConditionId id) {
+        ConditionEvaluator evaluator = evaluators[id.ordinal()];
+        if (evaluator != null)
+            evaluator.start();
+    }
+
+    public void stop(ConditionId id) {
+        ConditionEvaluator evaluator = evaluators[id.ordinal()];
+        if (evaluator != null)
+            evaluator.stop();
+    }
+
+    private void publish(int slot, Condition condition) {
+        snapshots.set(slot, condition.snapshot());
+        if (changedListener != null)
+            changedListener.onConditionsChanged(snapshot());
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.smart_login_conditions.managers;
+
+import android.annotation.SuppressLint;
+import android.bluetooth.BluetoothAdapter;
+import android.bluetooth.BluetoothDevice;
+import android.bluetooth.BluetoothProfile;
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.util.Log;
+
+import com.example.smart_login_conditions.utils.DeviceNameMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Asks every audio profile for its connected devices at once and resolves on the first one that
+ * matches one of the target names. A single deadline covers the whole race; whatever has not answered by
+ * then is treated as a miss. Must be used from the thread of the given handler.
+ */
+class ConnectedDeviceRace {
+
+    private static final String TAG = "ConnectedDeviceRace";
+
+    interface Callback {
+        void onMatch(BluetoothDevice device, String name, int profile);
+
+        void onNoMatch();
+    }
+
+    private final Context context;
+    private final BluetoothAdapter bluetoothAdapter;
+    private final Handler handler;
+    private final DeviceNameMatcher targetMatcher;
+    private final long deadlineMs;
+    private final Callback callback;
+
+    private final List<Integer> openProfiles = new ArrayList<>();
+    private final List<BluetoothProfile> openProxies = new ArrayList<>();
+    private final Runnable deadline = this::onDeadline;
+
+    private int pending;
+    private boolean resolved;
+    private Boolean knownBondedMatch;
+
+    ConnectedDeviceRace(Context context, BluetoothAdapter bluetoothAdapter, Handler handler,
+                        DeviceNameMatcher targetMatcher, long deadlineMs, Callback callback) {
+        this.context = context;
+        this.bluetoothAdapter = bluetoothAdapter;
+        this.handler = handler;
+        this.targetMatcher = targetMatcher;
+        this.deadlineMs = deadlineMs;
+        this.callback = callback;
+    }
+
+    /**
+     * Skips the bonded device lookup in {@link #start()}, for a result fetched ahead of time.
+     */
+    void setBondedMatch(boolean hasMatch) {
+        knownBondedMatch = hasMatch;
+    }
+
+    @SuppressLint("MissingPermission")
+    void start() {
+        boolean bondedMatch = knownBondedMatch != null ? knownBondedMatch
+                : hasBondedMatch(bluetoothAdapter, targetMatcher);
+        // every connected audio device is bonded, so no bonded match means no profile can match
+        if (!bondedMatch) {
+            Log.d(TAG, "No bonded device matches the targets");
+            resolveNoMatch();
+            return;
+        }
+
+        int[] profiles = racedProfiles();
+        pending = profiles.length;
+        handler.postDelayed(deadline, deadlineMs);
+
+        for (int profile : profiles) {
+            if (resolved)
+                break;
+
+            if (!bluetoothAdapter.getProfileProxy(context, new ProfileListener(), profile))
+                onProfileMiss();
+        }
+    }
+
+    void cancel() {
+        if (resolved)
+            return;
+
+        resolved = true;
+        finish();
+    }
+
+    boolean isResolved() {
+        return resolved;
+    }
+
+    @SuppressLint("MissingPermission")
+    static boolean hasBondedMatch(BluetoothAdapter bluetoothAdapter, DeviceNameMatcher targetMatcher) {
+        Set<BluetoothDevice> bonded = bluetoothAdapter.getBondedDevices();
+        if (bonded == null)
+            return true;
+
+        for (BluetoothDevice device : bonded) {
+            String name = device.getName();
+            if (targetMatcher.matches(name))
+                return true;
+        }
+        return false;
+    }
+
+    private static int[] racedProfiles() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU)
+            return new int[]{BluetoothProfile.HEADSET, BluetoothProfile.A2DP, BluetoothProfile.LE_AUDIO};
+        return new int[]{BluetoothProfile.HEADSET, BluetoothProfile.A2DP};
+    }
+
+    private void onProfileMiss() {
+        if (!resolved && --pending == 0)
+            resolveNoMatch();
+    }
+
+    private void onDeadline() {
+        if (resolved)
+            return;
+
+        Log.d(TAG, pending + " profile(s) did not answer before the deadline");
+        resolveNoMatch();
+    }
+
+    private void resolveNoMatch() {
+        resolved = true;
+        finish();
+        callback.onNoMatch();
+    }
+
+    private void finish() {
+        handler.removeCallbacks(deadline);
+        for (int i = 0; i < openProxies.size(); i++)
+            bluetoothAdapter.closeProfileProxy(openProfiles.get(i), openProxies.get(i));
+        openProfiles.clear();
+        openProxies.clear();
+    }
+
+    private class ProfileListener implements BluetoothProfile.ServiceListener {
+
+        @SuppressLint("MissingPermission")
+        @Override
+        public void onServiceConnected(int profile, BluetoothProfile proxy) {
+            if (resolved) {
+                // lost the race, nobody is waiting for this proxy anymore
+                bluetoothAdapter.closeProfileProxy(profile, proxy);
+                return;
+            }
+
+            openProfiles.add(profile);
+            openProxies.add(proxy);
+
+            for (BluetoothDevice device : proxy.getConnectedDevices()) {
+                String name = device.getName();
+                if (targetMatcher.matches(name)) {
+                    resolved = true;
+                    finish();
+                    callback.onMatch(device, name, profile);
+                    return;
+                }
+            }
+            onProfileMiss();
+        }
+
+        @Override
+        public void onServiceDisconnected(int profile) {
+        }
+    }
+}
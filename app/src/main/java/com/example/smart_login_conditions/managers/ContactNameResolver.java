@@ -0,0 +1,217 @@
+package com.example.smart_login_conditions.managers;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.ContactsContract;
+import android.telephony.PhoneNumberUtils;
+import android.telephony.TelephonyManager;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.example.smart_login_conditions.utils.ContactsIndex;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resolves phone numbers to contact names off the main thread.
+ *
+ * Once built, an in-memory {@link ContactsIndex} of E.164 numbers answers every lookup without
+ * touching the contacts provider. The index is built lazily and then kept current from a
+ * ContentObserver, re-reading only contacts updated or deleted after the last high-water mark.
+ * Until it is ready, lookups go to PhoneLookup through a bounded LRU cache. The index is built on
+ * its own thread, so a first build over a large address book never holds up resolving a call.
+ * Process-wide, since broadcast receivers are created anew for every broadcast.
+ */
+public class ContactNameResolver {
+
+    private static final String TAG = "ContactNameResolver";
+    private static final int CACHE_SIZE = 64;
+
+    // LruCache does not take null values, this marks numbers that are not in the contacts
+    private static final String NO_CONTACT = "";
+
+    private static ContactNameResolver instance;
+
+    private final ContentResolver contentResolver;
+    private final String countryIso;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "ContactNameResolver"));
+    private final ExecutorService indexExecutor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "ContactsIndex"));
+    private final LruCache<String, String> cache = new LruCache<>(CACHE_SIZE);
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    // written on the index thread and read by resolve() once ready, both under its own lock
+    private final ContactsIndex index = new ContactsIndex();
+    private volatile boolean indexReady;
+    // confined to the index thread
+    private long updatedHighWater;
+    private long deletedHighWater;
+
+    public static synchronized ContactNameResolver getInstance(Context context) {
+        if (instance == null)
+            instance = new ContactNameResolver(context.getApplicationContext());
+        return instance;
+    }
+
+    private ContactNameResolver(Context context) {
+        contentResolver = context.getContentResolver();
+        countryIso = detectCountryIso(context);
+        contentResolver.registerContentObserver(ContactsContract.Contacts.CONTENT_URI, true,
+                new ContentObserver(null) {
+                    @Override
+                    public void onChange(boolean selfChange) {
+                        cache.evictAll();
+                        scheduleIndexRefresh();
+                    }
+                });
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Starts building the index in the background if it is not built yet.
+     */
+    public void warmUp() {
+        scheduleIndexRefresh();
+    }
+
+    /**
+     * Blocking, call it from {@link #getExecutor()}. Returns null if the number is not a contact.
+     */
+    public String resolve(String number) {
+        String key = normalize(number);
+        if (key == null || key.isEmpty())
+            return null;
+
+        if (indexReady) {
+            synchronized (index) {
+                return index.lookup(key);
+            }
+        }
+
+        scheduleIndexRefresh();
+        String cached = cache.get(key);
+        if (cached != null)
+            return cached.equals(NO_CONTACT) ? null : cached;
+
+        String name = queryContactName(number);
+        cache.put(key, name != null ? name : NO_CONTACT);
+        return name;
+    }
+
+    private String normalize(String number) {
+        if (number == null)
+            return null;
+
+        String e164 = PhoneNumberUtils.formatNumberToE164(number, countryIso);
+        return e164 != null ? e164 : PhoneNumberUtils.normalizeNumber(number);
+    }
+
+    private void scheduleIndexRefresh() {
+        if (refreshQueued.compareAndSet(false, true))
+            indexExecutor.execute(this::refreshIndex);
+    }
+
+    private void refreshIndex() {
+        refreshQueued.set(false);
+        long started = System.nanoTime();
+
+        // lookups only wait here once the index is ready, when just the changed contacts are re-read
+        try {
+            synchronized (index) {
+                removeDeletedContacts();
+                long updated = reindexUpdatedContacts();
+                Log.d(TAG, "Re-indexed " + updated + " contact(s) in "
+                        + (System.nanoTime() - started) / 1_000_000 + "ms, " + index.size() + " numbers");
+            }
+            indexReady = true;
+        } catch (SecurityException e) {
+            Log.w(TAG, "Missing READ_CONTACTS permission, contacts index not built");
+        }
+    }
+
+    private void removeDeletedContacts() {
+        try (Cursor cursor = contentResolver.query(ContactsContract.DeletedContacts.CONTENT_URI,
+                new String[]{ContactsContract.DeletedContacts.CONTACT_ID,
+                        ContactsContract.DeletedContacts.CONTACT_DELETED_TIMESTAMP},
+                ContactsContract.DeletedContacts.CONTACT_DELETED_TIMESTAMP + " > ?",
+                new String[]{String.valueOf(deletedHighWater)}, null)) {
+            if (cursor == null)
+                return;
+
+            while (cursor.moveToNext()) {
+                index.removeContact(cursor.getLong(0));
+                deletedHighWater = Math.max(deletedHighWater, cursor.getLong(1));
+            }
+        }
+    }
+
+    private long reindexUpdatedContacts() {
+        String selection = ContactsContract.Contacts.CONTACT_LAST_UPDATED_TIMESTAMP + " > ?";
+        String[] selectionArgs = new String[]{String.valueOf(updatedHighWater)};
+        long newHighWater = updatedHighWater;
+        long updated = 0;
+
+        // drop every updated contact first, so numbers removed from a contact disappear too
+        try (Cursor cursor = contentResolver.query(ContactsContract.Contacts.CONTENT_URI,
+                new String[]{ContactsContract.Contacts._ID, ContactsContract.Contacts.CONTACT_LAST_UPDATED_TIMESTAMP},
+                selection, selectionArgs, null)) {
+            if (cursor == null)
+                return 0;
+
+            while (cursor.moveToNext()) {
+                index.removeContact(cursor.getLong(0));
+                newHighWater = Math.max(newHighWater, cursor.getLong(1));
+                updated++;
+            }
+        }
+
+        try (Cursor cursor = contentResolver.query(ContactsContract.CommonDataKinds.Phone.CONTENT_URI,
+                new String[]{ContactsContract.CommonDataKinds.Phone.CONTACT_ID,
+                        ContactsContract.CommonDataKinds.Phone.NUMBER,
+                        ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME},
+                selection, selectionArgs, null)) {
+            if (cursor != null) {
+                while (cursor.moveToNext())
+                    index.put(cursor.getLong(0), normalize(cursor.getString(1)), cursor.getString(2));
+            }
+        }
+
+        updatedHighWater = newHighWater;
+        return updated;
+    }
+
+    private String queryContactName(String number) {
+        Uri uri = Uri.withAppendedPath(ContactsContract.PhoneLookup.CONTENT_FILTER_URI, Uri.encode(number));
+        try (Cursor cursor = contentResolver.query(uri, new String[]{ContactsContract.PhoneLookup.DISPLAY_NAME},
+                null, null, null)) {
+            if (cursor != null && cursor.moveToFirst())
+                return cursor.getString(0);
+        } catch (SecurityException e) {
+            Log.w(TAG, "Missing READ_CONTACTS permission");
+        }
+        return null;
+    }
+
+    private static String detectCountryIso(Context context) {
+        TelephonyManager telephonyManager = (TelephonyManager) context.getSystemService(Context.TELEPHONY_SERVICE);
+        String iso = null;
+        if (telephonyManager != null) {
+            iso = telephonyManager.getNetworkCountryIso();
+            if (iso == null || iso.isEmpty())
+                iso = telephonyManager.getSimCountryIso();
+        }
+        if (iso == null || iso.isEmpty())
+            iso = Locale.getDefault().getCountry();
+        return iso.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.smart_login_conditions.managers;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
+
+import com.example.smart_login_conditions.models.ConditionId;
+import com.example.smart_login_conditions.models.StatusCode;
+import com.example.smart_login_conditions.utils.SpscQueue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands status codes from one background thread to the {@link ConditionEventBus} on the main thread.
+ * Codes go through an {@link SpscQueue} that is drained at most once per frame from a
+ * {@link Choreographer} callback; when a condition reported several codes since the last frame,
+ * only the newest is published. Nothing is allocated per code.
+ */
+public class FrameStatusDispatcher {
+
+    private static final String TAG = "FrameStatusDispatcher";
+    private static final int CAPACITY = 64;
+
+    private final ConditionEventBus bus;
+    private final SpscQueue<StatusCode> queue = new SpscQueue<>(CAPACITY);
+    private final AtomicBoolean frameScheduled = new AtomicBoolean();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // newest code per condition ordinal, main thread only
+    private final StatusCode[] latest = new StatusCode[ConditionId.COUNT];
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> drain();
+    private final Runnable scheduleFrame = () -> Choreographer.getInstance().postFrameCallback(frameCallback);
+
+    private volatile boolean released;
+
+    public FrameStatusDispatcher(ConditionEventBus bus) {
+        this.bus = bus;
+    }
+
+    /**
+     * Producer thread only.
+     */
+    public void post(StatusCode code) {
+        if (released)
+            return;
+
+        if (!queue.offer(code)) {
+            Log.w(TAG, "Status queue full, dropping " + code);
+            return;
+        }
+
+        if (frameScheduled.compareAndSet(false, true))
+            mainHandler.post(scheduleFrame);
+    }
+
+    /**
+     * Drops everything not delivered yet. Main thread.
+     */
+    public void release() {
+        released = true;
+        mainHandler.removeCallbacks(scheduleFrame);
+        Choreographer.getInstance().removeFrameCallback(frameCallback);
+    }
+
+    private void drain() {
+        // cleared first, so a code offered during the drain schedules the next frame
+        frameScheduled.set(false);
+        if (released)
+            return;
+
+        StatusCode code;
+        while ((code = queue.poll()) != null)
+            latest[code.getCondition().ordinal()] = code;
+
+        for (int i = 0; i < latest.length; i++) {
+            if (latest[i] == null)
+                continue;
+
+            code = latest[i];
+            latest[i] = null;
+            bus.publish(code);
+        }
+    }
+}
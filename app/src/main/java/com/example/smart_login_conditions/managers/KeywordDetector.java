@@ -0,0 +1,210 @@
+package com.example.smart_login_conditions.managers;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.media.AudioFormat;
+import android.media.AudioRecord;
+import android.media.MediaRecorder;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Runs {@link KeywordSpotter} on microphone audio, for devices without a speech recognition service.
+ *
+ * A dedicated thread reads {@link AudioRecord} into one preallocated buffer and feeds the spotter.
+ * Results are posted to the main thread. Templates are recorded only on request, with
+ * {@link #startEnrollment}, and saved under {@code files/keyword_templates}.
+ * Call everything else from the main thread; RECORD_AUDIO must be granted.
+ */
+public class KeywordDetector {
+
+    private static final String TAG = "KeywordDetector";
+    private static final String TEMPLATE_DIR = "keyword_templates";
+
+    // 40 ms per read, a few hops at a time
+    private static final int READ_SAMPLES = 4 * KeywordSpotter.HOP_SIZE;
+
+    public interface KeywordListener {
+        void onEnrolled();
+
+        void onUtterance(boolean matched);
+    }
+
+    private final File templateDir;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final KeywordSpotter spotter;
+
+    private KeywordListener listener;
+    private volatile boolean running;
+    private volatile boolean enrolling;
+    private Thread audioThread;
+
+    public KeywordDetector(Context context) {
+        templateDir = new File(context.getFilesDir(), TEMPLATE_DIR);
+        spotter = new KeywordSpotter(KeywordSpotter.DEFAULT_THRESHOLD, this::onUtterance);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean hasTemplates() {
+        String[] names = templateDir.list();
+        return names != null && names.length > 0;
+    }
+
+    /**
+     * Compares utterances with the recorded templates.
+     *
+     * @return false if the microphone could not be opened
+     */
+    public boolean start(KeywordListener listener) {
+        return start(listener, false);
+    }
+
+    /**
+     * Records the next utterance as another template, reported through
+     * {@link KeywordListener#onEnrolled}.
+     *
+     * @return false if the microphone could not be opened
+     */
+    public boolean startEnrollment(KeywordListener listener) {
+        return start(listener, true);
+    }
+
+    /**
+     * Stops listening and deletes every recorded template.
+     */
+    public void clearTemplates() {
+        stop();
+        File[] files = templateDir.listFiles();
+        if (files == null)
+            return;
+
+        for (File file : files) {
+            if (!file.delete())
+                Log.w(TAG, "Cannot delete " + file);
+        }
+    }
+
+    @SuppressLint("MissingPermission")
+    private boolean start(KeywordListener listener, boolean enroll) {
+        stop();
+        this.listener = listener;
+        this.enrolling = enroll;
+
+        int minBuffer = AudioRecord.getMinBufferSize(KeywordSpotter.SAMPLE_RATE,
+                AudioFormat.CHANNEL_IN_MONO, AudioFormat.ENCODING_PCM_16BIT);
+        AudioRecord record = new AudioRecord(MediaRecorder.AudioSource.VOICE_RECOGNITION,
+                KeywordSpotter.SAMPLE_RATE, AudioFormat.CHANNEL_IN_MONO, AudioFormat.ENCODING_PCM_16BIT,
+                Math.max(minBuffer, READ_SAMPLES * 2 * 4));
+        if (record.getState() != AudioRecord.STATE_INITIALIZED) {
+            Log.w(TAG, "AudioRecord failed to initialize");
+            record.release();
+            return false;
+        }
+
+        running = true;
+        audioThread = new Thread(() -> capture(record), "KeywordDetector");
+        audioThread.setPriority(Thread.MAX_PRIORITY);
+        audioThread.start();
+        return true;
+    }
+
+    public void stop() {
+        running = false;
+        if (audioThread != null) {
+            try {
+                audioThread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            audioThread = null;
+        }
+        mainHandler.removeCallbacksAndMessages(null);
+        listener = null;
+    }
+
+    private void capture(AudioRecord record) {
+        short[] buffer = new short[READ_SAMPLES];
+        try {
+            loadTemplates();
+            spotter.reset();
+            record.startRecording();
+            while (running) {
+                int read = record.read(buffer, 0, buffer.length);
+                if (read < 0) {
+                    Log.w(TAG, "AudioRecord read error " + read);
+                    break;
+                }
+                spotter.process(buffer, 0, read);
+            }
+        } finally {
+            record.stop();
+            record.release();
+            running = false;
+        }
+    }
+
+    // audio thread
+    private void onUtterance(float distance, boolean matched) {
+        Log.d(TAG, "Utterance distance " + distance);
+
+        if (enrolling) {
+            enrolling = false;
+            KeywordSpotter.Template template = spotter.lastUtterance();
+            spotter.addTemplate(template);
+            saveTemplate(template);
+            mainHandler.post(() -> {
+                if (listener != null)
+                    listener.onEnrolled();
+            });
+            return;
+        }
+
+        mainHandler.post(() -> {
+            if (listener != null)
+                listener.onUtterance(matched);
+        });
+    }
+
+    private void loadTemplates() {
+        spotter.clearTemplates();
+        File[] files = templateDir.listFiles();
+        if (files == null)
+            return;
+
+        for (File file : files) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                spotter.addTemplate(KeywordSpotter.Template.readFrom(in));
+            } catch (IOException e) {
+                Log.w(TAG, "Dropping unreadable template " + file.getName(), e);
+                file.delete();
+            }
+        }
+    }
+
+    private void saveTemplate(KeywordSpotter.Template template) {
+        if (!templateDir.isDirectory() && !templateDir.mkdirs()) {
+            Log.w(TAG, "Cannot create " + templateDir);
+            return;
+        }
+
+        File file = new File(templateDir, System.currentTimeMillis() + ".kwt");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            template.writeTo(out);
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot save template", e);
+        }
+    }
+}
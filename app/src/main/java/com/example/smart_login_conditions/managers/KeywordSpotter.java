@@ -0,0 +1,301 @@
+package com.example.smart_login_conditions.managers;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming keyword spotter for 16 kHz mono PCM, independent of Android so it can be tested and
+ * benchmarked on any JVM.
+ *
+ * Samples go into a ring buffer that is cut into 25 ms frames every 10 ms. An energy detector with
+ * an adaptive noise floor finds utterances; only their frames go through {@link MfccExtractor}.
+ * When an utterance ends it is compared with the enrolled templates by dynamic time warping,
+ * restricted to a band around the diagonal. Utterances are capped at {@link #MAX_FRAMES}, so the
+ * work per utterance is bounded. Nothing is allocated per sample or per frame.
+ * Not thread-safe; feed it from the audio thread.
+ */
+public class KeywordSpotter {
+
+    public static final int SAMPLE_RATE = 16000;
+    public static final int FRAME_SIZE = 400;
+    public static final int HOP_SIZE = 160;
+    public static final int MAX_FRAMES = 200;
+    public static final float DEFAULT_THRESHOLD = 6f;
+
+    static final int MIN_FRAMES = 15;
+
+    private static final int DIMS = MfccExtractor.COEFFICIENTS;
+    private static final int HANGOVER_FRAMES = 20;
+    private static final float START_MARGIN_DB = 10f;
+    private static final float CONTINUE_MARGIN_DB = 6f;
+    private static final float MIN_SPEECH_DB = -50f;
+    private static final float NOISE_RISE = 0.01f;
+    private static final float MAX_LENGTH_RATIO = 2f;
+
+    public interface Listener {
+        /**
+         * @param distance normalized DTW distance to the closest template, infinite if there is none
+         */
+        void onUtterance(float distance, boolean matched);
+    }
+
+    /**
+     * Features of one enrolled utterance.
+     */
+    public static final class Template {
+
+        private static final int MAGIC = 0x4B57534C; // "KWSL"
+        private static final short VERSION = 1;
+
+        final float[] features;
+        final int frames;
+
+        Template(float[] features, int frames) {
+            this.features = features;
+            this.frames = frames;
+        }
+
+        public int getFrames() {
+            return frames;
+        }
+
+        public void writeTo(DataOutput out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(DIMS);
+            out.writeInt(frames);
+            for (int i = 0; i < frames * DIMS; i++)
+                out.writeFloat(features[i]);
+        }
+
+        public static Template readFrom(DataInput in) throws IOException {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION || in.readShort() != DIMS)
+                throw new IOException("Not a keyword template, or an outdated one");
+
+            int frames = in.readInt();
+            if (frames < MIN_FRAMES || frames > MAX_FRAMES)
+                throw new IOException("Bad frame count " + frames);
+
+            float[] features = new float[frames * DIMS];
+            for (int i = 0; i < features.length; i++)
+                features[i] = in.readFloat();
+            return new Template(features, frames);
+        }
+    }
+
+    private final float threshold;
+    private final Listener listener;
+    private final List<Template> templates = new ArrayList<>();
+    private final MfccExtractor extractor = new MfccExtractor(SAMPLE_RATE, FRAME_SIZE);
+
+    private final float[] ring = new float[FRAME_SIZE];
+    private final float[] frame = new float[FRAME_SIZE];
+    private int ringPosition;
+    private int ringFilled;
+    private int samplesSinceHop;
+
+    private final float[] utterance = new float[MAX_FRAMES * DIMS];
+    private final float[] means = new float[DIMS];
+    private final float[] previousCosts = new float[MAX_FRAMES + 1];
+    private final float[] costs = new float[MAX_FRAMES + 1];
+    private float noiseFloorDb = Float.NaN;
+    private boolean inSpeech;
+    private boolean overflowed;
+    private int utteranceFrames;
+    private int lastSpeechFrame;
+    private int silentFrames;
+
+    private Template lastUtterance;
+
+    public KeywordSpotter(float threshold, Listener listener) {
+        this.threshold = threshold;
+        this.listener = listener;
+    }
+
+    /**
+     * Extracts the template of the first utterance in {@code pcm}, or returns null if it has none.
+     */
+    public static Template enroll(short[] pcm, int offset, int length) {
+        KeywordSpotter spotter = new KeywordSpotter(0f, (distance, matched) -> {
+        });
+        spotter.process(pcm, offset, length);
+        spotter.flush();
+        return spotter.lastUtterance();
+    }
+
+    public void addTemplate(Template template) {
+        templates.add(template);
+    }
+
+    public int getTemplateCount() {
+        return templates.size();
+    }
+
+    public void clearTemplates() {
+        templates.clear();
+    }
+
+    /**
+     * Copy of the features of the last complete utterance, to enroll it as a template.
+     */
+    public Template lastUtterance() {
+        return lastUtterance;
+    }
+
+    public void process(short[] pcm, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            ring[ringPosition] = pcm[i] / 32768f;
+            ringPosition = ringPosition + 1 == FRAME_SIZE ? 0 : ringPosition + 1;
+            if (ringFilled < FRAME_SIZE)
+                ringFilled++;
+
+            if (++samplesSinceHop >= HOP_SIZE && ringFilled == FRAME_SIZE) {
+                samplesSinceHop = 0;
+                processFrame();
+            }
+        }
+    }
+
+    /**
+     * Ends an utterance still in progress, e.g. at the end of a recording.
+     */
+    public void flush() {
+        if (inSpeech && !overflowed)
+            endUtterance();
+        inSpeech = false;
+        overflowed = false;
+    }
+
+    public void reset() {
+        Arrays.fill(ring, 0f);
+        ringPosition = 0;
+        ringFilled = 0;
+        samplesSinceHop = 0;
+        noiseFloorDb = Float.NaN;
+        inSpeech = false;
+        overflowed = false;
+        utteranceFrames = 0;
+    }
+
+    private void processFrame() {
+        // oldest sample first
+        int tail = FRAME_SIZE - ringPosition;
+        System.arraycopy(ring, ringPosition, frame, 0, tail);
+        System.arraycopy(ring, 0, frame, tail, ringPosition);
+
+        float sumSquares = 0f;
+        for (int i = 0; i < FRAME_SIZE; i++)
+            sumSquares += frame[i] * frame[i];
+        float energyDb = (float) (10 * Math.log10(sumSquares / FRAME_SIZE + 1e-10));
+
+        if (!inSpeech) {
+            if (Float.isNaN(noiseFloorDb) || energyDb < noiseFloorDb)
+                noiseFloorDb = energyDb;
+            else
+                noiseFloorDb += (energyDb - noiseFloorDb) * NOISE_RISE;
+
+            if (energyDb > noiseFloorDb + START_MARGIN_DB && energyDb > MIN_SPEECH_DB) {
+                inSpeech = true;
+                overflowed = false;
+                utteranceFrames = 0;
+                lastSpeechFrame = 0;
+                silentFrames = 0;
+                appendFrame();
+            }
+            return;
+        }
+
+        boolean speech = energyDb > noiseFloorDb + CONTINUE_MARGIN_DB && energyDb > MIN_SPEECH_DB;
+        if (speech)
+            silentFrames = 0;
+        else if (++silentFrames >= HANGOVER_FRAMES) {
+            if (!overflowed)
+                endUtterance();
+            inSpeech = false;
+            return;
+        }
+
+        if (overflowed)
+            return;
+        if (utteranceFrames == MAX_FRAMES) {
+            // too long to be the passphrase, ignore it until the next pause
+            overflowed = true;
+            return;
+        }
+        if (speech)
+            lastSpeechFrame = utteranceFrames;
+        appendFrame();
+    }
+
+    private void appendFrame() {
+        extractor.extract(frame, utterance, utteranceFrames * DIMS);
+        utteranceFrames++;
+    }
+
+    private void endUtterance() {
+        // drop the trailing silence
+        int frames = Math.min(utteranceFrames, lastSpeechFrame + 1);
+        if (frames < MIN_FRAMES)
+            return;
+
+        normalize(utterance, frames);
+        lastUtterance = new Template(Arrays.copyOf(utterance, frames * DIMS), frames);
+
+        float best = Float.POSITIVE_INFINITY;
+        for (int i = 0; i < templates.size(); i++)
+            best = Math.min(best, distance(utterance, frames, templates.get(i)));
+        listener.onUtterance(best, best <= threshold);
+    }
+
+    // cepstral mean normalization, removes the microphone and room coloring
+    private void normalize(float[] features, int frames) {
+        Arrays.fill(means, 0f);
+        for (int f = 0; f < frames; f++) {
+            for (int d = 0; d < DIMS; d++)
+                means[d] += features[f * DIMS + d];
+        }
+        for (int d = 0; d < DIMS; d++)
+            means[d] /= frames;
+        for (int f = 0; f < frames; f++) {
+            for (int d = 0; d < DIMS; d++)
+                features[f * DIMS + d] -= means[d];
+        }
+    }
+
+    private float distance(float[] features, int frames, Template template) {
+        int n = frames;
+        int m = template.frames;
+        if (Math.max(n, m) > MAX_LENGTH_RATIO * Math.min(n, m))
+            return Float.POSITIVE_INFINITY;
+
+        int band = Math.max(Math.abs(n - m), Math.max(n, m) / 4);
+        Arrays.fill(previousCosts, 0, m + 1, Float.POSITIVE_INFINITY);
+        previousCosts[0] = 0f;
+
+        for (int i = 1; i <= n; i++) {
+            Arrays.fill(costs, 0, m + 1, Float.POSITIVE_INFINITY);
+            int center = i * m / n;
+            int from = Math.max(1, center - band);
+            int to = Math.min(m, center + band);
+            for (int j = from; j <= to; j++) {
+                float best = Math.min(previousCosts[j - 1], Math.min(previousCosts[j], costs[j - 1]));
+                costs[j] = best + frameDistance(features, (i - 1) * DIMS, template.features, (j - 1) * DIMS);
+            }
+            System.arraycopy(costs, 0, previousCosts, 0, m + 1);
+        }
+        return previousCosts[m] / (n + m);
+    }
+
+    private static float frameDistance(float[] a, int aOffset, float[] b, int bOffset) {
+        float sum = 0f;
+        for (int d = 0; d < DIMS; d++) {
+            float diff = a[aOffset + d] - b[bOffset + d];
+            sum += diff * diff;
+        }
+        return (float) Math.sqrt(sum);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.smart_login_conditions.managers;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.example.smart_login_conditions.utils.DeviceNameMatcher;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers Bluetooth devices that recently matched, persisted across app restarts, so a repeat
+ * login within the TTL resolves without touching the radio.
+ */
+public class KnownDeviceCache {
+
+    private static final String PREFS_NAME = "KnownDevices";
+    private static final char SEPARATOR = '|';
+
+    public static class Entry {
+        public final String address;
+        public final String name;
+        public final long lastSeenMs;
+
+        Entry(String address, String name, long lastSeenMs) {
+            this.address = address;
+            this.name = name;
+            this.lastSeenMs = lastSeenMs;
+        }
+    }
+
+    private final SharedPreferences prefs;
+    private final long ttlMs;
+    private Map<String, Entry> entries;
+
+    public KnownDeviceCache(Context context, long ttlMs) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Returns the most recently seen device whose name matches and that was seen within the TTL,
+     * or null. Expired entries are pruned on the way.
+     */
+    public Entry findFresh(DeviceNameMatcher matcher, long nowMs) {
+        Entry best = null;
+        SharedPreferences.Editor expired = null;
+
+        for (Entry entry : load().values().toArray(new Entry[0])) {
+            if (nowMs - entry.lastSeenMs > ttlMs) {
+                if (expired == null)
+                    expired = prefs.edit();
+                expired.remove(entry.address);
+                entries.remove(entry.address);
+                continue;
+            }
+
+            if (matcher.matches(entry.name) && (best == null || entry.lastSeenMs > best.lastSeenMs))
+                best = entry;
+        }
+
+        if (expired != null)
+            expired.apply();
+        return best;
+    }
+
+    public void put(String address, String name, long nowMs) {
+        if (address == null || name == null)
+            return;
+
+        load().put(address, new Entry(address, name, nowMs));
+        prefs.edit().putString(address, String.valueOf(nowMs) + SEPARATOR + name).apply();
+    }
+
+    public void remove(String address) {
+        load().remove(address);
+        prefs.edit().remove(address).apply();
+    }
+
+    private Map<String, Entry> load() {
+        if (entries != null)
+            return entries;
+
+        entries = new HashMap<>();
+        for (Map.Entry<String, ?> stored : prefs.getAll().entrySet()) {
+            Object value = stored.getValue();
+            if (!(value instanceof String))
+                continue;
+
+            String encoded = (String) value;
+            int split = encoded.indexOf(SEPARATOR);
+            if (split <= 0)
+                continue;
+
+            try {
+                long lastSeen = Long.parseLong(encoded.substring(0, split));
+                entries.put(stored.getKey(), new Entry(stored.getKey(), encoded.substring(split + 1), lastSeen));
+            } catch (NumberFormatException ignored) {
+                // not written by this cache, skip it
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.smart_login_conditions.managers;
+
+/**
+ * Smooths raw lux readings with an exponential moving average and classifies them with a
+ * hysteresis band around the threshold, so readings hovering near the threshold do not flap.
+ */
+public class LightLevelFilter {
+
+    public enum Level {
+        UNKNOWN,
+        DARK,
+        BRIGHT
+    }
+
+    private final float thresholdLux;
+    private final float hysteresisLux;
+    private final float smoothing;
+
+    private float average;
+    private Level level = Level.UNKNOWN;
+
+    /**
+     * @param smoothing weight of the newest sample, in (0, 1]. 1 disables smoothing.
+     */
+    public LightLevelFilter(float thresholdLux, float hysteresisLux, float smoothing) {
+        if (hysteresisLux < 0)
+            throw new IllegalArgumentException("hysteresisLux must not be negative");
+        if (smoothing <= 0 || smoothing > 1)
+            throw new IllegalArgumentException("smoothing must be in (0, 1]");
+
+        this.thresholdLux = thresholdLux;
+        this.hysteresisLux = hysteresisLux;
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Feeds one reading and returns true only if it changed the classified level.
+     */
+    public boolean update(float lux) {
+        Level next;
+        if (level == Level.UNKNOWN) {
+            average = lux;
+            next = lux > thresholdLux ? Level.BRIGHT : Level.DARK;
+        } else {
+            average += smoothing * (lux - average);
+            if (average > thresholdLux + hysteresisLux)
+                next = Level.BRIGHT;
+            else if (average < thresholdLux - hysteresisLux)
+                next = Level.DARK;
+            else
+                next = level;
+        }
+
+        if (next == level)
+            return false;
+
+        level = next;
+        return true;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public float getAverage() {
+        return average;
+    }
+
+    public void reset() {
+        level = Level.UNKNOWN;
+        average = 0f;
+    }
+}
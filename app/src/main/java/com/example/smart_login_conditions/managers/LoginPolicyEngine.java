@@ -0,0 +1,317 @@
+package com.example.smart_login_conditions.managers;
+
+import com.example.smart_login_conditions.interfaces.LoginReadinessListener;
+import com.example.smart_login_conditions.models.ConditionId;
+import com.example.smart_login_conditions.models.LoginPolicy;
+import com.example.smart_login_conditions.models.StatusCode;
+import com.example.smart_login_conditions.models.StatusCode.Outcome;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decides login readiness from a {@link LoginPolicy}, and which condition sources have to run for it.
+ *
+ * The policy is compiled into a tree whose children are sorted by cost, and evaluated with three
+ * outcomes: a node passes as soon as enough children passed and fails as soon as too many failed,
+ * without looking at the rest. Only the sources the policy still needs are activated, cheapest
+ * first: a node that needs k more passes activates its k cheapest pending children, and the next
+ * one only when one of them fails. Sources that can no longer change the result are deactivated,
+ * and once the policy is satisfied every source is.
+ *
+ * A pass without a TTL keeps counting from then on, its source keeps running only while the
+ * policy is not satisfied yet. With a TTL, a pass counts for that long and the source is stopped
+ * meanwhile; when it expires, the condition is pending again and its source is activated anew,
+ * which is the only thing that wakes a source of a satisfied policy.
+ *
+ * Main thread only. Times are in the caller's millisecond clock.
+ */
+public class LoginPolicyEngine {
+
+    public interface Host {
+        void activate(ConditionId id);
+
+        void deactivate(ConditionId id);
+
+        /**
+         * A pass outlived its TTL and no longer counts.
+         */
+        default void onExpired(ConditionId id) {
+        }
+
+        /**
+         * Call {@link #refresh} at {@code atMs}, replacing the previous request; -1 cancels it.
+         */
+        default void scheduleRefresh(long atMs) {
+        }
+    }
+
+    private static final class Node {
+        final ConditionId condition;
+        final int required;
+        final Node[] children;
+
+        Node(ConditionId condition, int required, Node[] children) {
+            this.condition = condition;
+            this.required = required;
+            this.children = children;
+        }
+    }
+
+    private final Host host;
+    private final Node root;
+    private final Set<ConditionId> conditions;
+    private final Outcome[] outcomes = new Outcome[ConditionId.COUNT];
+    private final long[] passedAtMs = new long[ConditionId.COUNT];
+    private final long[] ttlMs = new long[ConditionId.COUNT];
+    private final List<LoginReadinessListener> listeners = new ArrayList<>();
+
+    private final Set<ConditionId> active = EnumSet.noneOf(ConditionId.class);
+    // in activation order, cheapest first
+    private final List<ConditionId> demanded = new ArrayList<>(ConditionId.COUNT);
+    private final Set<ConditionId> relevant = EnumSet.noneOf(ConditionId.class);
+
+    private boolean started;
+    private boolean satisfied;
+    private boolean refreshing;
+    private boolean refreshAgain;
+    private long scheduledRefreshMs = -1;
+
+    public LoginPolicyEngine(LoginPolicy policy, Host host) {
+        this.host = host;
+        this.conditions = policy.getConditions();
+        Arrays.fill(outcomes, Outcome.PENDING);
+        this.root = compile(policy);
+    }
+
+    private Node compile(LoginPolicy policy) {
+        if (policy.isCondition()) {
+            ttlMs[policy.getCondition().ordinal()] = policy.getTtlMs();
+            return new Node(policy.getCondition(), 1, null);
+        }
+
+        List<LoginPolicy> sorted = new ArrayList<>(policy.getChildren());
+        sorted.sort(Comparator.comparingInt(LoginPolicy::getCost));
+        Node[] children = new Node[sorted.size()];
+        for (int i = 0; i < children.length; i++)
+            children[i] = compile(sorted.get(i));
+        return new Node(null, policy.getRequired(), children);
+    }
+
+    /**
+     * The conditions the policy refers to.
+     */
+    public Set<ConditionId> getConditions() {
+        return EnumSet.copyOf(conditions);
+    }
+
+    public void addListener(LoginReadinessListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(LoginReadinessListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Activates the first sources.
+     */
+    public void start(long nowMs) {
+        started = true;
+        refresh(nowMs);
+    }
+
+    /**
+     * Deactivates every source; {@link #start} begins again.
+     */
+    public void stop() {
+        started = false;
+        for (ConditionId id : new ArrayList<>(active)) {
+            active.remove(id);
+            host.deactivate(id);
+        }
+        scheduleRefresh(-1);
+    }
+
+    public void onStatus(StatusCode code, long nowMs) {
+        ConditionId id = code.getCondition();
+        if (!code.isStatus() || !conditions.contains(id))
+            return;
+
+        outcomes[id.ordinal()] = code.getOutcome();
+        if (code.isPassed())
+            passedAtMs[id.ordinal()] = nowMs;
+        refresh(nowMs);
+    }
+
+    public boolean isSatisfied() {
+        return satisfied;
+    }
+
+    /**
+     * Whether the condition can still change the result, i.e. whether acting on it is worthwhile.
+     */
+    public boolean isRelevant(ConditionId id) {
+        return relevant.contains(id);
+    }
+
+    public void refresh(long nowMs) {
+        // activating a source may report a status right away, which lands here again
+        if (refreshing) {
+            refreshAgain = true;
+            return;
+        }
+
+        refreshing = true;
+        try {
+            do {
+                refreshAgain = false;
+                update(nowMs);
+            } while (refreshAgain);
+        } finally {
+            refreshing = false;
+        }
+    }
+
+    private void update(long nowMs) {
+        expirePasses(nowMs);
+
+        boolean nowSatisfied = evaluate(root, nowMs) == Outcome.PASSED;
+        demanded.clear();
+        relevant.clear();
+        if (!nowSatisfied) {
+            collectRelevant(root, nowMs);
+            collectDemanded(root, nowMs);
+        }
+
+        for (ConditionId id : conditions) {
+            if (active.contains(id) && !relevant.contains(id)) {
+                active.remove(id);
+                host.deactivate(id);
+            }
+        }
+        if (started) {
+            for (int i = 0; i < demanded.size(); i++) {
+                ConditionId id = demanded.get(i);
+                if (active.add(id))
+                    host.activate(id);
+            }
+        }
+        // a satisfied policy is rechecked too, it stops being satisfied once a pass it relies on expires
+        scheduleRefresh(nextExpiryMs());
+
+        if (nowSatisfied != satisfied) {
+            satisfied = nowSatisfied;
+            for (int i = 0; i < listeners.size(); i++)
+                listeners.get(i).onReadinessChanged(nowSatisfied);
+        }
+    }
+
+    private void expirePasses(long nowMs) {
+        for (ConditionId id : conditions) {
+            int i = id.ordinal();
+            if (outcomes[i] == Outcome.PASSED && ttlMs[i] > 0 && nowMs - passedAtMs[i] >= ttlMs[i]) {
+                outcomes[i] = Outcome.PENDING;
+                host.onExpired(id);
+            }
+        }
+    }
+
+    private long nextExpiryMs() {
+        if (!started)
+            return -1;
+
+        long next = -1;
+        for (ConditionId id : conditions) {
+            int i = id.ordinal();
+            if (outcomes[i] != Outcome.PASSED || ttlMs[i] == 0)
+                continue;
+
+            long expiry = passedAtMs[i] + ttlMs[i];
+            if (next == -1 || expiry < next)
+                next = expiry;
+        }
+        return next;
+    }
+
+    private void scheduleRefresh(long atMs) {
+        if (atMs == scheduledRefreshMs)
+            return;
+
+        scheduledRefreshMs = atMs;
+        host.scheduleRefresh(atMs);
+    }
+
+    private Outcome leafOutcome(ConditionId id, long nowMs) {
+        int i = id.ordinal();
+        Outcome outcome = outcomes[i];
+        if (outcome == Outcome.PASSED && ttlMs[i] > 0 && nowMs - passedAtMs[i] >= ttlMs[i])
+            return Outcome.PENDING;
+        return outcome;
+    }
+
+    private Outcome evaluate(Node node, long nowMs) {
+        if (node.condition != null)
+            return leafOutcome(node.condition, nowMs);
+
+        int passed = 0;
+        int failed = 0;
+        for (Node child : node.children) {
+            Outcome outcome = evaluate(child, nowMs);
+            if (outcome == Outcome.PASSED && ++passed >= node.required)
+                return Outcome.PASSED;
+            if (outcome == Outcome.FAILED && node.children.length - ++failed < node.required)
+                return Outcome.FAILED;
+        }
+        return Outcome.PENDING;
+    }
+
+    // conditions whose outcome can still change the result of an unsatisfied policy: everything
+    // under an unsatisfied node, and what a satisfied node depends on while it has no TTL
+    private void collectRelevant(Node node, long nowMs) {
+        if (node.condition != null) {
+            int i = node.condition.ordinal();
+            if (leafOutcome(node.condition, nowMs) != Outcome.PASSED || ttlMs[i] == 0)
+                relevant.add(node.condition);
+            return;
+        }
+
+        boolean nodePassed = evaluate(node, nowMs) == Outcome.PASSED;
+        for (Node child : node.children) {
+            if (!nodePassed || evaluate(child, nowMs) == Outcome.PASSED)
+                collectRelevant(child, nowMs);
+        }
+    }
+
+    private void collectDemanded(Node node, long nowMs) {
+        if (node.condition != null) {
+            if (leafOutcome(node.condition, nowMs) != Outcome.PASSED)
+                demanded.add(node.condition);
+            return;
+        }
+
+        if (evaluate(node, nowMs) == Outcome.PASSED)
+            return;
+
+        int needed = node.required;
+        for (Node child : node.children) {
+            if (evaluate(child, nowMs) == Outcome.PASSED)
+                needed--;
+        }
+
+        for (Node child : node.children) {
+            Outcome outcome = evaluate(child, nowMs);
+            if (outcome == Outcome.FAILED) {
+                // keeps running in case it recovers, without counting towards what is needed
+                collectDemanded(child, nowMs);
+            } else if (outcome == Outcome.PENDING && needed > 0) {
+                collectDemanded(child, nowMs);
+                needed--;
+            }
+        }
+    }
+}
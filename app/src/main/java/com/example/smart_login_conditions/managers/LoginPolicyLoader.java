@@ -0,0 +1,74 @@
+package com.example.smart_login_conditions.managers;
+
+import android.content.Context;
+
+import com.example.smart_login_conditions.models.ConditionId;
+import com.example.smart_login_conditions.models.LoginPolicy;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads a {@link LoginPolicy} from JSON. A node is one of
+ * <pre>
+ * { "condition": "ROOM_BRIGHT", "ttlMs": 60000 }    ttlMs is optional
+ * { "all": [ ... ] }
+ * { "any": [ ... ] }
+ * { "atLeast": 2, "of": [ ... ] }
+ * </pre>
+ */
+public class LoginPolicyLoader {
+
+    public static final String DEFAULT_ASSET = "login_policy.json";
+
+    private LoginPolicyLoader() {
+    }
+
+    /**
+     * Blocks on asset I/O, call off the main thread.
+     */
+    public static LoginPolicy load(Context context, String assetName) throws IOException, JSONException {
+        try (InputStream in = context.getAssets().open(assetName)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                out.write(buffer, 0, read);
+            return parse(new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    public static LoginPolicy parse(String json) throws JSONException {
+        return parseNode(new JSONObject(json));
+    }
+
+    private static LoginPolicy parseNode(JSONObject node) throws JSONException {
+        try {
+            if (node.has("condition"))
+                return LoginPolicy.condition(ConditionId.valueOf(node.getString("condition")), node.optLong("ttlMs", 0));
+            if (node.has("all"))
+                return LoginPolicy.allOf(parseChildren(node.getJSONArray("all")));
+            if (node.has("any"))
+                return LoginPolicy.anyOf(parseChildren(node.getJSONArray("any")));
+            if (node.has("atLeast"))
+                return LoginPolicy.atLeast(node.getInt("atLeast"), parseChildren(node.getJSONArray("of")));
+        } catch (IllegalArgumentException e) {
+            // unknown condition names and impossible thresholds
+            throw new JSONException(e.getMessage() + " in " + node);
+        }
+        throw new JSONException("Not a policy node: " + node);
+    }
+
+    private static LoginPolicy[] parseChildren(JSONArray array) throws JSONException {
+        LoginPolicy[] children = new LoginPolicy[array.length()];
+        for (int i = 0; i < children.length; i++)
+            children[i] = parseNode(array.getJSONObject(i));
+        return children;
+    }
+}
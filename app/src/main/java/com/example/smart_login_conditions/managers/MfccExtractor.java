@@ -0,0 +1,157 @@
+package com.example.smart_login_conditions.managers;
+
+/**
+ * Mel-frequency cepstral coefficients of one audio frame: pre-emphasis, Hamming window, 512 point
+ * FFT, a mel filterbank and a DCT. All tables and buffers are allocated once, so
+ * {@link #extract} does not allocate.
+ * Not thread-safe.
+ */
+public class MfccExtractor {
+
+    public static final int FFT_SIZE = 512;
+    // c0 is left out, it only carries loudness
+    public static final int COEFFICIENTS = 12;
+
+    private static final int MEL_BANDS = 24;
+    private static final float PRE_EMPHASIS = 0.97f;
+    private static final float MIN_ENERGY = 1e-10f;
+
+    private final int frameSize;
+    private final float[] window;
+
+    private final float[] re = new float[FFT_SIZE];
+    private final float[] im = new float[FFT_SIZE];
+    private final int[] bitReverse = new int[FFT_SIZE];
+    private final float[] cos = new float[FFT_SIZE / 2];
+    private final float[] sin = new float[FFT_SIZE / 2];
+
+    private final int[] bandStart = new int[MEL_BANDS];
+    private final float[][] bandWeights = new float[MEL_BANDS][];
+    private final float[] logEnergies = new float[MEL_BANDS];
+    private final float[] dct = new float[COEFFICIENTS * MEL_BANDS];
+
+    public MfccExtractor(int sampleRate, int frameSize) {
+        if (frameSize < 2 || frameSize > FFT_SIZE)
+            throw new IllegalArgumentException("frameSize: " + frameSize);
+
+        this.frameSize = frameSize;
+        window = new float[frameSize];
+        for (int i = 0; i < frameSize; i++)
+            window[i] = (float) (0.54 - 0.46 * Math.cos(2 * Math.PI * i / (frameSize - 1)));
+
+        int bits = Integer.numberOfTrailingZeros(FFT_SIZE);
+        for (int i = 0; i < FFT_SIZE; i++)
+            bitReverse[i] = Integer.reverse(i) >>> (32 - bits);
+        for (int i = 0; i < FFT_SIZE / 2; i++) {
+            cos[i] = (float) Math.cos(2 * Math.PI * i / FFT_SIZE);
+            sin[i] = (float) Math.sin(2 * Math.PI * i / FFT_SIZE);
+        }
+
+        buildFilterbank(sampleRate);
+
+        for (int k = 0; k < COEFFICIENTS; k++) {
+            for (int m = 0; m < MEL_BANDS; m++)
+                dct[k * MEL_BANDS + m] = (float) Math.cos(Math.PI * (k + 1) * (m + 0.5) / MEL_BANDS);
+        }
+    }
+
+    /**
+     * @param frame {@code frameSize} samples in [-1, 1], left untouched
+     * @param out   receives {@link #COEFFICIENTS} values starting at {@code outOffset}
+     */
+    public void extract(float[] frame, float[] out, int outOffset) {
+        float previous = 0f;
+        for (int i = 0; i < frameSize; i++) {
+            float sample = frame[i];
+            re[i] = (sample - PRE_EMPHASIS * previous) * window[i];
+            im[i] = 0f;
+            previous = sample;
+        }
+        for (int i = frameSize; i < FFT_SIZE; i++) {
+            re[i] = 0f;
+            im[i] = 0f;
+        }
+
+        fft();
+
+        for (int band = 0; band < MEL_BANDS; band++) {
+            float[] weights = bandWeights[band];
+            int start = bandStart[band];
+            float energy = 0f;
+            for (int i = 0; i < weights.length; i++) {
+                int bin = start + i;
+                energy += weights[i] * (re[bin] * re[bin] + im[bin] * im[bin]);
+            }
+            logEnergies[band] = (float) Math.log(Math.max(energy, MIN_ENERGY));
+        }
+
+        for (int k = 0; k < COEFFICIENTS; k++) {
+            float sum = 0f;
+            int row = k * MEL_BANDS;
+            for (int m = 0; m < MEL_BANDS; m++)
+                sum += dct[row + m] * logEnergies[m];
+            out[outOffset + k] = sum;
+        }
+    }
+
+    private void fft() {
+        for (int i = 0; i < FFT_SIZE; i++) {
+            int j = bitReverse[i];
+            if (j > i) {
+                float t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+            }
+        }
+
+        for (int size = 2; size <= FFT_SIZE; size <<= 1) {
+            int half = size >> 1;
+            int step = FFT_SIZE / size;
+            for (int start = 0; start < FFT_SIZE; start += size) {
+                for (int k = 0; k < half; k++) {
+                    float wr = cos[k * step];
+                    float wi = -sin[k * step];
+                    int a = start + k;
+                    int b = a + half;
+                    float tr = wr * re[b] - wi * im[b];
+                    float ti = wr * im[b] + wi * re[b];
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
+
+    private void buildFilterbank(int sampleRate) {
+        double maxMel = toMel(sampleRate / 2.0);
+        int[] points = new int[MEL_BANDS + 2];
+        for (int i = 0; i < points.length; i++) {
+            double hz = fromMel(maxMel * i / (MEL_BANDS + 1));
+            points[i] = Math.min(FFT_SIZE / 2, (int) Math.floor((FFT_SIZE + 1) * hz / sampleRate));
+        }
+
+        for (int band = 0; band < MEL_BANDS; band++) {
+            int left = points[band];
+            int center = Math.max(points[band + 1], left + 1);
+            int right = Math.max(points[band + 2], center + 1);
+            float[] weights = new float[right - left + 1];
+            for (int bin = left; bin <= right && bin <= FFT_SIZE / 2; bin++) {
+                weights[bin - left] = bin <= center
+                        ? (float) (bin - left) / (center - left)
+                        : (float) (right - bin) / (right - center);
+            }
+            bandStart[band] = left;
+            bandWeights[band] = weights;
+        }
+    }
+
+    private static double toMel(double hz) {
+        return 2595 * Math.log10(1 + hz / 700);
+    }
+
+    private static double fromMel(double mel) {
+        return 700 * (Math.pow(10, mel / 2595) - 1);
+    }
+}
@@ -5,25 +5,59 @@ import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
 import android.util.Log;
 
-import java.util.function.BiConsumer;
+import com.example.smart_login_conditions.models.StatusCode;
 
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Light and spin conditions. Sensor events are processed on a dedicated thread; status changes are
+ * published on the {@link ConditionEventBus} from the main thread, at most once per frame through a
+ * {@link FrameStatusDispatcher}.
+ */
 public class SensorHandler {
 
+    private static final String TAG = "SensorHandler";
+
     private SensorManager sensorManager;
 
     private Sensor gyroscopeSensor;
     private Sensor lightSensor;
 
-    private SensorEventListener gyroscopeListener;
+    private final HandlerThread sensorThread;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final SensorSessionManager sessions;
+    private final ConditionEventBus events = ConditionEventBus.getInstance();
+    private final FrameStatusDispatcher dispatcher = new FrameStatusDispatcher(events);
 
-    private SensorEventListener lightListener;
     private static final float BRIGHT_THRESHOLD_LUX = 10f;
+    private static final float LIGHT_HYSTERESIS_LUX = 2f;
+    private static final float LIGHT_SMOOTHING = 0.3f;
+    private static final long LIGHT_LOG_INTERVAL_NS = 5_000_000_000L;
+    // once the room is bright, a short look every ten seconds is enough to notice it going dark
+    private static final long LIGHT_DUTY_ON_MS = 1000;
+    private static final long LIGHT_DUTY_OFF_MS = 9000;
+
+    private final LightLevelFilter lightFilter =
+            new LightLevelFilter(BRIGHT_THRESHOLD_LUX, LIGHT_HYSTERESIS_LUX, LIGHT_SMOOTHING);
+    private long lastLightLogTimestamp;
 
-    private float accumulatedRotation = 0f;
-    private long lastTimestamp = 0;
+    private static final float SPIN_ROTATIONS = 2f;
+    private static final long SPIN_WINDOW_NS = 4_000_000_000L;
+    // 20 ms slots, one SENSOR_DELAY_GAME sample each; faster samples are merged
+    private static final int SPIN_WINDOW_SLOTS = 200;
 
+    private final SpinDetector spinDetector =
+            new SpinDetector(SPIN_ROTATIONS, SPIN_WINDOW_NS, SPIN_WINDOW_SLOTS);
+
+    // started and stopped on the main thread, written on the sensor thread
+    private final Object traceLock = new Object();
+    private SensorTraceRecorder traceRecorder;
 
     public SensorHandler(Context context) {
         sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
@@ -31,24 +65,41 @@ public class SensorHandler {
             lightSensor = sensorManager.getDefaultSensor(Sensor.TYPE_LIGHT);
             gyroscopeSensor = sensorManager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
         }
+        sensorThread = new HandlerThread("SensorThread");
+        sensorThread.start();
+        sessions = new SensorSessionManager(sensorManager, mainHandler, new Handler(sensorThread.getLooper()));
+    }
+
+    /**
+     * Add it to the lifecycle of the owning activity, so sensors follow its resume and pause.
+     */
+    public SensorSessionManager getSessions() {
+        return sessions;
     }
 
-    public void startLightMonitoring(BiConsumer<String, Boolean> conditionStatusCallback) {
+    public void startLightMonitoring() {
         if (lightSensor == null) {
-            conditionStatusCallback.accept("❌ No Light Sensor", false);
+            events.publish(StatusCode.NO_LIGHT_SENSOR);
             return;
         }
 
-        lightListener = new SensorEventListener() {
+        lightFilter.reset();
+        SensorEventListener lightListener = new SensorEventListener() {
             @Override
             public void onSensorChanged(SensorEvent event) {
+                recordTrace(event);
                 float lux = event.values[0];
-                Log.d("SensorHandler", "Light level: " + lux);
+                logLightLevel(event.timestamp, lux);
+
+                if (!lightFilter.update(lux))
+                    return;
 
-                if (lux > BRIGHT_THRESHOLD_LUX) {
-                    conditionStatusCallback.accept("✔ Room is Bright", true);
+                if (lightFilter.getLevel() == LightLevelFilter.Level.BRIGHT) {
+                    mainHandler.post(() -> sessions.setDutyCycle(lightSensor, LIGHT_DUTY_ON_MS, LIGHT_DUTY_OFF_MS));
+                    dispatcher.post(StatusCode.ROOM_BRIGHT);
                 } else {
-                    conditionStatusCallback.accept("❌ Room is Dark", false);
+                    mainHandler.post(() -> sessions.setDutyCycle(lightSensor, 0, 0));
+                    dispatcher.post(StatusCode.ROOM_DARK);
                 }
             }
 
@@ -56,36 +107,77 @@ public class SensorHandler {
             public void onAccuracyChanged(Sensor sensor, int accuracy) {}
         };
 
-        sensorManager.registerListener(lightListener, lightSensor, SensorManager.SENSOR_DELAY_NORMAL);
+        sessions.start(lightSensor, lightListener, SensorManager.SENSOR_DELAY_NORMAL);
+    }
+
+    public void stopLightMonitoring() {
+        if (lightSensor != null)
+            sessions.stop(lightSensor);
+    }
+
+    public void startTraceRecording(File file) {
+        synchronized (traceLock) {
+            stopTraceRecording();
+            try {
+                traceRecorder = new SensorTraceRecorder(file);
+                Log.i(TAG, "Recording sensor trace to " + file);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to start sensor trace", e);
+            }
+        }
+    }
+
+    public void stopTraceRecording() {
+        synchronized (traceLock) {
+            if (traceRecorder == null)
+                return;
+
+            try {
+                traceRecorder.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to close sensor trace", e);
+            }
+            traceRecorder = null;
+        }
+    }
+
+    private void recordTrace(SensorEvent event) {
+        synchronized (traceLock) {
+            if (traceRecorder == null)
+                return;
+
+            try {
+                traceRecorder.record(event.sensor.getType(), event.timestamp, event.values, event.values.length);
+            } catch (IOException e) {
+                Log.e(TAG, "Sensor trace write failed, recording stopped", e);
+                stopTraceRecording();
+            }
+        }
+    }
+
+    private void logLightLevel(long timestamp, float lux) {
+        if (!Log.isLoggable(TAG, Log.DEBUG) || timestamp - lastLightLogTimestamp < LIGHT_LOG_INTERVAL_NS)
+            return;
+
+        lastLightLogTimestamp = timestamp;
+        Log.d(TAG, "Light level: " + lux + " (avg " + lightFilter.getAverage() + ")");
     }
 
-    public void startGyroscopeMonitoring(BiConsumer<String, Boolean> conditionStatusCallback) {
+    public void startGyroscopeMonitoring() {
         if (gyroscopeSensor == null) {
-            Log.d("SensorHandler", "No Gyroscope Sensor");
-            conditionStatusCallback.accept("❌ No Gyroscope", false);
+            Log.d(TAG, "No Gyroscope Sensor");
+            events.publish(StatusCode.NO_GYROSCOPE);
             return;
         }
 
+        spinDetector.reset();
         SensorEventListener gyroscopeListener = new SensorEventListener() {
             @Override
             public void onSensorChanged(SensorEvent event) {
-                if (lastTimestamp == 0) {
-                    lastTimestamp = event.timestamp;
-                    return;
-                }
-
-                float zRotationRate = event.values[2];
-                float deltaTime = (event.timestamp - lastTimestamp) * 1.0f / 1_000_000_000;
-                lastTimestamp = event.timestamp;
-
-                float deltaRotation = zRotationRate * deltaTime;
-                accumulatedRotation += deltaRotation;
-
-                float fullRotations = Math.abs(accumulatedRotation) / (float) (2 * Math.PI);
-
-                if (fullRotations >= 2) {
-                    conditionStatusCallback.accept("✔ 2 Spins Detected!", true);
-                    sensorManager.unregisterListener(this);
+                recordTrace(event);
+                if (spinDetector.onSample(event.timestamp, event.values[0], event.values[1], event.values[2])) {
+                    dispatcher.post(StatusCode.SPIN_DETECTED);
+                    mainHandler.post(() -> sessions.stop(gyroscopeSensor));
                 }
             }
 
@@ -94,13 +186,27 @@ public class SensorHandler {
             }
         };
 
-        sensorManager.registerListener(gyroscopeListener, gyroscopeSensor, SensorManager.SENSOR_DELAY_GAME);
+        sessions.start(gyroscopeSensor, gyroscopeListener, SensorManager.SENSOR_DELAY_GAME);
+    }
+
+    public void stopGyroscopeMonitoring() {
+        if (gyroscopeSensor != null)
+            sessions.stop(gyroscopeSensor);
     }
 
 
     public void stopAll() {
-        if (lightListener != null) sensorManager.unregisterListener(lightListener);
-        if (gyroscopeListener != null) sensorManager.unregisterListener(gyroscopeListener);
+        sessions.stopAll();
+        stopTraceRecording();
+    }
+
+    /**
+     * Stops everything and ends the sensor thread; the handler cannot be used afterwards.
+     */
+    public void release() {
+        stopAll();
+        dispatcher.release();
+        sensorThread.quitSafely();
     }
 
 }
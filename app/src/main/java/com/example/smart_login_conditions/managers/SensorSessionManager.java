@@ -0,0 +1,163 @@
+package com.example.smart_login_conditions.managers;
+
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns every sensor registration of a screen and follows its lifecycle: sensors asked for are
+ * unregistered when it pauses and registered again when it resumes, and can be duty cycled. The
+ * decisions are made by {@link SensorSessions}; this class plugs in the {@link SensorManager} and
+ * the handlers, and forwards events to the listener of each sensor.
+ * Must be used from the thread of the given handler. Sensor events are delivered on the thread of
+ * the event handler, which may be a different one.
+ */
+public class SensorSessionManager implements DefaultLifecycleObserver, SensorSessions.SensorService<Sensor> {
+
+    private static final String TAG = "SensorSessionManager";
+
+    private static final class Forwarder implements SensorEventListener {
+        // set before the first registration, which publishes it to the event thread
+        SensorUsageStats stats;
+        volatile SensorEventListener listener;
+
+        @Override
+        public void onSensorChanged(SensorEvent event) {
+            stats.onEvent();
+            SensorEventListener current = listener;
+            if (current != null)
+                current.onSensorChanged(event);
+        }
+
+        @Override
+        public void onAccuracyChanged(Sensor sensor, int accuracy) {
+            SensorEventListener current = listener;
+            if (current != null)
+                current.onAccuracyChanged(sensor, accuracy);
+        }
+    }
+
+    private final SensorManager sensorManager;
+    private final Handler eventHandler;
+    private final SensorSessions<Sensor> sessions;
+    private final Map<Sensor, Forwarder> forwarders = new HashMap<>();
+
+    public SensorSessionManager(SensorManager sensorManager, Handler handler, Handler eventHandler) {
+        this.sensorManager = sensorManager;
+        this.eventHandler = eventHandler;
+        this.sessions = new SensorSessions<>(this, new SensorSessions.Scheduler() {
+            @Override
+            public void schedule(Runnable task, long delayMs) {
+                handler.postDelayed(task, delayMs);
+            }
+
+            @Override
+            public void cancel(Runnable task) {
+                handler.removeCallbacks(task);
+            }
+        }, SystemClock::elapsedRealtimeNanos);
+    }
+
+    /**
+     * Listens to the sensor now if resumed, or from the next resume. Replaces the listener of an
+     * earlier call for the same sensor.
+     */
+    public void start(Sensor sensor, SensorEventListener listener, int samplingPeriodUs) {
+        forwarder(sensor).listener = listener;
+        sessions.start(sensor, samplingPeriodUs);
+    }
+
+    public void stop(Sensor sensor) {
+        sessions.stop(sensor);
+        Forwarder forwarder = forwarders.get(sensor);
+        if (forwarder != null)
+            forwarder.listener = null;
+    }
+
+    /**
+     * Listens for {@code onMs} out of every {@code onMs + offMs}; zero for either listens continuously.
+     */
+    public void setDutyCycle(Sensor sensor, long onMs, long offMs) {
+        sessions.setDutyCycle(sensor, onMs, offMs);
+    }
+
+    public void stopAll() {
+        sessions.stopAll();
+        for (Forwarder forwarder : forwarders.values())
+            forwarder.listener = null;
+    }
+
+    public List<SensorUsageStats> getUsage() {
+        return sessions.getUsage();
+    }
+
+    @Override
+    public boolean register(Sensor sensor, int samplingPeriodUs) {
+        Forwarder forwarder = forwarder(sensor);
+        forwarder.stats = sessions.getStats(sensor);
+        if (sensorManager.registerListener(forwarder, sensor, samplingPeriodUs, eventHandler))
+            return true;
+
+        Log.w(TAG, "Failed to register " + sensor.getName());
+        return false;
+    }
+
+    @Override
+    public void unregister(Sensor sensor) {
+        sensorManager.unregisterListener(forwarder(sensor));
+    }
+
+    @Override
+    public String getName(Sensor sensor) {
+        return sensor.getName();
+    }
+
+    @Override
+    public float getPower(Sensor sensor) {
+        return sensor.getPower();
+    }
+
+    @Override
+    public void onResume(@NonNull LifecycleOwner owner) {
+        sessions.resume();
+    }
+
+    @Override
+    public void onPause(@NonNull LifecycleOwner owner) {
+        sessions.pause();
+
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            long now = SystemClock.elapsedRealtimeNanos();
+            for (SensorUsageStats stats : sessions.getUsage())
+                Log.d(TAG, stats.describe(now));
+        }
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        stopAll();
+        owner.getLifecycle().removeObserver(this);
+    }
+
+    // one per sensor, created the first time the sensor is started
+    private Forwarder forwarder(Sensor sensor) {
+        Forwarder forwarder = forwarders.get(sensor);
+        if (forwarder == null) {
+            forwarder = new Forwarder();
+            forwarders.put(sensor, forwarder);
+        }
+        return forwarder;
+    }
+}
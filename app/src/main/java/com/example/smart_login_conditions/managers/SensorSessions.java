@@ -0,0 +1,180 @@
+package com.example.smart_login_conditions.managers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * When each sensor of a screen should be registered. Sensors asked for stay wanted across pauses:
+ * they are unregistered on {@link #pause} and registered again on {@link #resume}. A wanted sensor
+ * can be duty cycled, listening for a short window and sleeping for a longer one. Usage is counted
+ * per sensor in {@link SensorUsageStats}.
+ * Free of Android types so it runs on the JVM; {@link SensorSessionManager} plugs in the
+ * SensorManager and a Handler. Must be used from a single thread, the one the scheduler runs on.
+ *
+ * @param <S> the sensor type
+ */
+public class SensorSessions<S> {
+
+    public interface SensorService<S> {
+        /**
+         * @return false if the sensor could not be registered
+         */
+        boolean register(S sensor, int samplingPeriodUs);
+
+        void unregister(S sensor);
+
+        String getName(S sensor);
+
+        float getPower(S sensor);
+    }
+
+    public interface Scheduler {
+        void schedule(Runnable task, long delayMs);
+
+        void cancel(Runnable task);
+    }
+
+    private final class Session {
+        final S sensor;
+        final SensorUsageStats stats;
+        final Runnable toggle = this::toggleDutyPhase;
+        int samplingPeriodUs;
+        long onMs;
+        long offMs;
+        boolean wanted;
+        boolean dutyOn = true;
+
+        Session(S sensor) {
+            this.sensor = sensor;
+            this.stats = new SensorUsageStats(service.getName(sensor), service.getPower(sensor));
+        }
+
+        boolean isDutyCycled() {
+            return onMs > 0 && offMs > 0;
+        }
+
+        void toggleDutyPhase() {
+            dutyOn = !dutyOn;
+            apply();
+            scheduler.schedule(toggle, dutyOn ? onMs : offMs);
+        }
+
+        void apply() {
+            boolean shouldListen = resumed && wanted && (!isDutyCycled() || dutyOn);
+            if (shouldListen == stats.isActive())
+                return;
+
+            if (shouldListen) {
+                if (service.register(sensor, samplingPeriodUs))
+                    stats.markActive(clock.getAsLong());
+            } else {
+                service.unregister(sensor);
+                stats.markInactive(clock.getAsLong());
+            }
+        }
+    }
+
+    private final SensorService<S> service;
+    private final Scheduler scheduler;
+    private final LongSupplier clock;
+    private final Map<S, Session> sessions = new LinkedHashMap<>();
+    private boolean resumed;
+
+    /**
+     * @param clock nanosecond clock for the usage stats
+     */
+    public SensorSessions(SensorService<S> service, Scheduler scheduler, LongSupplier clock) {
+        this.service = service;
+        this.scheduler = scheduler;
+        this.clock = clock;
+    }
+
+    /**
+     * Registers the sensor now if resumed, or from the next resume. A different sampling period
+     * than before registers it again.
+     */
+    public void start(S sensor, int samplingPeriodUs) {
+        Session session = sessions.get(sensor);
+        if (session == null) {
+            session = new Session(sensor);
+            sessions.put(sensor, session);
+        } else if (session.stats.isActive() && session.samplingPeriodUs != samplingPeriodUs) {
+            service.unregister(sensor);
+            session.stats.markInactive(clock.getAsLong());
+        }
+
+        session.samplingPeriodUs = samplingPeriodUs;
+        session.wanted = true;
+        session.apply();
+    }
+
+    public void stop(S sensor) {
+        Session session = sessions.get(sensor);
+        if (session == null)
+            return;
+
+        scheduler.cancel(session.toggle);
+        session.wanted = false;
+        session.onMs = 0;
+        session.offMs = 0;
+        session.apply();
+    }
+
+    /**
+     * Listens for {@code onMs} out of every {@code onMs + offMs}; zero for either listens continuously.
+     */
+    public void setDutyCycle(S sensor, long onMs, long offMs) {
+        Session session = sessions.get(sensor);
+        if (session == null || (session.onMs == onMs && session.offMs == offMs))
+            return;
+
+        scheduler.cancel(session.toggle);
+        session.onMs = onMs;
+        session.offMs = offMs;
+        session.dutyOn = true;
+        session.apply();
+        if (resumed && session.wanted && session.isDutyCycled())
+            scheduler.schedule(session.toggle, onMs);
+    }
+
+    public void stopAll() {
+        for (S sensor : new ArrayList<>(sessions.keySet()))
+            stop(sensor);
+    }
+
+    public void resume() {
+        resumed = true;
+        for (Session session : sessions.values()) {
+            session.dutyOn = true;
+            session.apply();
+            if (session.wanted && session.isDutyCycled())
+                scheduler.schedule(session.toggle, session.onMs);
+        }
+    }
+
+    public void pause() {
+        resumed = false;
+        for (Session session : sessions.values()) {
+            scheduler.cancel(session.toggle);
+            session.apply();
+        }
+    }
+
+    /**
+     * Null for a sensor that was never started.
+     */
+    public SensorUsageStats getStats(S sensor) {
+        Session session = sessions.get(sensor);
+        return session == null ? null : session.stats;
+    }
+
+    public List<SensorUsageStats> getUsage() {
+        List<SensorUsageStats> usage = new ArrayList<>(sessions.size());
+        for (Session session : sessions.values())
+            usage.add(session.stats);
+        return usage;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.smart_login_conditions.managers;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes raw sensor samples to a compact binary trace that {@link SensorTraceReplay} can read
+ * back on any JVM.
+ *
+ * Layout (little endian): a header of magic, version and reserved short, followed by records of
+ * {@code long timestampNs, int sensorType, byte valueCount, float[valueCount] values}.
+ */
+public class SensorTraceRecorder implements Closeable {
+
+    static final int MAGIC = 0x52544C53; // "SLTR"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8 + 4 + 1;
+    static final int MAX_VALUES = 16;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long recordCount;
+    private boolean closed;
+
+    public SensorTraceRecorder(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+    }
+
+    public synchronized void record(int sensorType, long timestampNs, float[] values, int valueCount) throws IOException {
+        if (closed)
+            throw new IOException("Recorder is closed");
+
+        int count = Math.min(valueCount, MAX_VALUES);
+        if (buffer.remaining() < RECORD_HEADER_SIZE + count * 4)
+            flush();
+
+        buffer.putLong(timestampNs).putInt(sensorType).put((byte) count);
+        for (int i = 0; i < count; i++)
+            buffer.putFloat(values[i]);
+        recordCount++;
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+
+        try {
+            flush();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.smart_login_conditions.managers;
+
+import com.example.smart_login_conditions.interfaces.SensorSampleListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-maps a trace written by {@link SensorTraceRecorder} and pushes every sample to a
+ * {@link SensorSampleListener} as fast as it can be read, reusing one values array.
+ */
+public class SensorTraceReplay {
+
+    private final MappedByteBuffer trace;
+
+    public SensorTraceReplay(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            trace = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        trace.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (trace.remaining() < SensorTraceRecorder.HEADER_SIZE || trace.getInt(0) != SensorTraceRecorder.MAGIC)
+            throw new IOException("Not a sensor trace: " + file);
+        if (trace.getShort(4) != SensorTraceRecorder.VERSION)
+            throw new IOException("Unsupported sensor trace version " + trace.getShort(4));
+    }
+
+    /**
+     * Replays the whole trace and returns the number of samples delivered.
+     */
+    public long replay(SensorSampleListener listener) throws IOException {
+        float[] values = new float[SensorTraceRecorder.MAX_VALUES];
+        int position = SensorTraceRecorder.HEADER_SIZE;
+        int limit = trace.limit();
+        long samples = 0;
+
+        while (position < limit) {
+            if (limit - position < SensorTraceRecorder.RECORD_HEADER_SIZE)
+                throw new IOException("Truncated record at offset " + position);
+
+            long timestampNs = trace.getLong(position);
+            int sensorType = trace.getInt(position + 8);
+            int count = trace.get(position + 12);
+            position += SensorTraceRecorder.RECORD_HEADER_SIZE;
+
+            if (count < 0 || count > SensorTraceRecorder.MAX_VALUES || limit - position < count * 4)
+                throw new IOException("Corrupt record at offset " + position);
+
+            for (int i = 0; i < count; i++)
+                values[i] = trace.getFloat(position + i * 4);
+            position += count * 4;
+
+            listener.onSample(sensorType, timestampNs, values, count);
+            samples++;
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.smart_login_conditions.managers;
+
+import java.util.Locale;
+
+/**
+ * Active time, activations and delivered events of one sensor, with the energy they cost estimated
+ * from the sensor's rated current. Times are in the caller's nanosecond clock.
+ */
+public class SensorUsageStats {
+
+    private static final double NANOS_PER_HOUR = 3_600_000_000_000d;
+
+    private final String name;
+    private final float powerMa;
+
+    private long activeNs;
+    private long activeSinceNs = -1;
+    private int activations;
+    // counted on the sensor event thread, read anywhere
+    private volatile long events;
+
+    public SensorUsageStats(String name, float powerMa) {
+        this.name = name;
+        this.powerMa = powerMa;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void markActive(long nowNs) {
+        if (activeSinceNs >= 0)
+            return;
+
+        activeSinceNs = nowNs;
+        activations++;
+    }
+
+    public void markInactive(long nowNs) {
+        if (activeSinceNs < 0)
+            return;
+
+        activeNs += nowNs - activeSinceNs;
+        activeSinceNs = -1;
+    }
+
+    /**
+     * From a single thread at a time.
+     */
+    public void onEvent() {
+        events++;
+    }
+
+    public boolean isActive() {
+        return activeSinceNs >= 0;
+    }
+
+    public long getActiveNs(long nowNs) {
+        return activeSinceNs < 0 ? activeNs : activeNs + nowNs - activeSinceNs;
+    }
+
+    public int getActivations() {
+        return activations;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    public double getEstimatedMah(long nowNs) {
+        return (double) powerMa * getActiveNs(nowNs) / NANOS_PER_HOUR;
+    }
+
+    public String describe(long nowNs) {
+        return String.format(Locale.ROOT, "%s: active %.1fs over %d activation(s), %d events, ~%.4f mAh",
+                name, getActiveNs(nowNs) / 1e9, activations, events, getEstimatedMah(nowNs));
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.smart_login_conditions.managers;
+
+/**
+ * Detects "N full rotations within a time window" from gyroscope samples.
+ *
+ * Angle increments are kept per axis in fixed-size ring buffers and summed as a vector, so a spin
+ * about any fixed device axis counts while shaking back and forth cancels out. Samples that fall
+ * out of the window are subtracted again, and nothing is allocated per sample.
+ *
+ * The window is split into a fixed number of time slots and samples landing in the same slot are
+ * merged, so the buffers cover the whole window whatever rate the sensor delivers at.
+ */
+public class SpinDetector {
+
+    private static final double FULL_ROTATION_RAD = 2 * Math.PI;
+    private static final long MAX_SAMPLE_GAP_NS = 500_000_000L;
+
+    private final double requiredAngleRad;
+    private final long windowNs;
+    private final long slotNs;
+
+    private final long[] timestamps;
+    private final float[] deltaX;
+    private final float[] deltaY;
+    private final float[] deltaZ;
+
+    private int head;
+    private int size;
+    private double sumX;
+    private double sumY;
+    private double sumZ;
+    private long lastTimestamp;
+    // slot of the newest entry
+    private long tailSlot;
+    private boolean detected;
+
+    /**
+     * @param slots how many time slots the window is split into
+     */
+    public SpinDetector(float rotations, long windowNs, int slots) {
+        if (rotations <= 0 || windowNs <= 0 || slots <= 0)
+            throw new IllegalArgumentException("rotations, window and slots must be positive");
+
+        this.requiredAngleRad = rotations * FULL_ROTATION_RAD;
+        this.windowNs = windowNs;
+        this.slotNs = Math.max(1, (windowNs + slots - 1) / slots);
+        // a window that does not start on a slot boundary touches one more slot
+        int capacity = slots + 1;
+        this.timestamps = new long[capacity];
+        this.deltaX = new float[capacity];
+        this.deltaY = new float[capacity];
+        this.deltaZ = new float[capacity];
+    }
+
+    /**
+     * Feeds one gyroscope sample (rad/s) and returns true on the sample that completes the spin.
+     * Once detected, further samples are ignored until {@link #reset()}.
+     */
+    public boolean onSample(long timestampNs, float x, float y, float z) {
+        if (detected)
+            return false;
+
+        long previous = lastTimestamp;
+        lastTimestamp = timestampNs;
+        if (previous == 0 || timestampNs <= previous)
+            return false;
+
+        long gap = timestampNs - previous;
+        if (gap > MAX_SAMPLE_GAP_NS) {
+            // the sensor was paused, rotation from before the gap no longer belongs to this spin
+            clearWindow();
+            return false;
+        }
+
+        float dt = gap * 1e-9f;
+        push(timestampNs, x * dt, y * dt, z * dt);
+        evictOlderThan(timestampNs - windowNs);
+
+        if (getAccumulatedAngle() >= requiredAngleRad) {
+            detected = true;
+            return true;
+        }
+        return false;
+    }
+
+    public double getAccumulatedAngle() {
+        return Math.sqrt(sumX * sumX + sumY * sumY + sumZ * sumZ);
+    }
+
+    public float getRotations() {
+        return (float) (getAccumulatedAngle() / FULL_ROTATION_RAD);
+    }
+
+    public boolean isDetected() {
+        return detected;
+    }
+
+    public void reset() {
+        clearWindow();
+        lastTimestamp = 0;
+        detected = false;
+    }
+
+    private void push(long timestampNs, float dx, float dy, float dz) {
+        long slot = timestampNs / slotNs;
+        if (size > 0 && slot == tailSlot) {
+            int tail = (head + size - 1) % timestamps.length;
+            timestamps[tail] = timestampNs;
+            deltaX[tail] += dx;
+            deltaY[tail] += dy;
+            deltaZ[tail] += dz;
+        } else {
+            if (size == timestamps.length)
+                removeOldest();
+
+            int tail = (head + size) % timestamps.length;
+            timestamps[tail] = timestampNs;
+            deltaX[tail] = dx;
+            deltaY[tail] = dy;
+            deltaZ[tail] = dz;
+            tailSlot = slot;
+            size++;
+        }
+
+        sumX += dx;
+        sumY += dy;
+        sumZ += dz;
+    }
+
+    private void evictOlderThan(long cutoffNs) {
+        while (size > 0 && timestamps[head] < cutoffNs)
+            removeOldest();
+    }
+
+    private void removeOldest() {
+        sumX -= deltaX[head];
+        sumY -= deltaY[head];
+        sumZ -= deltaZ[head];
+        head = (head + 1) % timestamps.length;
+        size--;
+    }
+
+    private void clearWindow() {
+        head = 0;
+        size = 0;
+        sumX = 0;
+        sumY = 0;
+        sumZ = 0;
+    }
+}
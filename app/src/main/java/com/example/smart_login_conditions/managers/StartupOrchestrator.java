@@ -0,0 +1,246 @@
+package com.example.smart_login_conditions.managers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs startup work as a dependency graph. Each step runs as soon as the steps it depends on have
+ * finished, on the background executor or, for steps that touch views, on the main executor, so
+ * independent steps overlap. Every step's start and duration are recorded for
+ * {@link #getTimings()}.
+ *
+ * A step that throws fails the steps that depend on it, which are skipped; the others still run.
+ * A step marked {@link #optional} only fails itself: its dependents run without what it would
+ * have set up. Build the graph and call {@link #start} from one thread.
+ */
+public class StartupOrchestrator {
+
+    public interface Listener {
+        /**
+         * Called on the main executor once every step has run or been skipped.
+         *
+         * @param failure the first failure of a step that is not optional, or null
+         */
+        void onStartupFinished(List<Timing> timings, Throwable failure);
+    }
+
+    public static final class Timing {
+        public final String name;
+        public final boolean onMain;
+        public final String threadName;
+        // relative to start()
+        public final long startNs;
+        public final long durationNs;
+        public final boolean failed;
+        // what the step threw, or null
+        public final Throwable error;
+
+        Timing(String name, boolean onMain, String threadName, long startNs, long durationNs, Throwable error) {
+            this.name = name;
+            this.onMain = onMain;
+            this.threadName = threadName;
+            this.startNs = startNs;
+            this.durationNs = durationNs;
+            this.failed = error != null;
+            this.error = error;
+        }
+
+        public long endNs() {
+            return startNs + durationNs;
+        }
+
+        @Override
+        public String toString() {
+            return name + (onMain ? " [main] " : " [" + threadName + "] ")
+                    + "+" + startNs / 1000 / 1000f + "ms " + durationNs / 1000 / 1000f + "ms" + (failed ? " FAILED" : "");
+        }
+    }
+
+    private static final class Step {
+        final String name;
+        final boolean onMain;
+        final Runnable task;
+        final String[] dependencies;
+        final List<Step> dependents = new ArrayList<>();
+        final AtomicInteger remaining = new AtomicInteger();
+        boolean optional;
+        volatile boolean failed;
+
+        Step(String name, boolean onMain, Runnable task, String[] dependencies) {
+            this.name = name;
+            this.onMain = onMain;
+            this.task = task;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private final Executor background;
+    private final Executor main;
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+    private final List<Timing> timings = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger unfinished = new AtomicInteger();
+
+    private volatile boolean cancelled;
+    private volatile Throwable failure;
+    private Listener listener;
+    private long startedNs;
+
+    public StartupOrchestrator(Executor background, Executor main) {
+        this.background = background;
+        this.main = main;
+    }
+
+    public StartupOrchestrator onBackground(String name, Runnable task, String... dependsOn) {
+        return addStep(name, false, task, dependsOn);
+    }
+
+    public StartupOrchestrator onMain(String name, Runnable task, String... dependsOn) {
+        return addStep(name, true, task, dependsOn);
+    }
+
+    private StartupOrchestrator addStep(String name, boolean onMain, Runnable task, String[] dependsOn) {
+        if (listener != null)
+            throw new IllegalStateException("Already started");
+        if (steps.containsKey(name))
+            throw new IllegalArgumentException("Duplicate step " + name);
+
+        steps.put(name, new Step(name, onMain, task, dependsOn.clone()));
+        return this;
+    }
+
+    /**
+     * @throws IllegalStateException if a dependency is missing or the steps form a cycle
+     */
+    public void start(Listener listener) {
+        if (this.listener != null)
+            throw new IllegalStateException("Already started");
+
+        for (Step step : steps.values()) {
+            for (String dependency : step.dependencies) {
+                Step required = steps.get(dependency);
+                if (required == null)
+                    throw new IllegalStateException(step.name + " depends on unknown step " + dependency);
+                required.dependents.add(step);
+            }
+            step.remaining.set(step.dependencies.length);
+        }
+        checkAcyclic();
+
+        this.listener = listener;
+        startedNs = System.nanoTime();
+        unfinished.set(steps.size());
+        if (steps.isEmpty()) {
+            main.execute(this::notifyFinished);
+            return;
+        }
+
+        for (Step step : steps.values()) {
+            if (step.dependencies.length == 0)
+                dispatch(step);
+        }
+    }
+
+    /**
+     * Skips the steps that have not started yet; the listener is not called.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Marks steps already added whose failure the rest of startup can do without.
+     */
+    public StartupOrchestrator optional(String... names) {
+        if (listener != null)
+            throw new IllegalStateException("Already started");
+        for (String name : names) {
+            Step step = steps.get(name);
+            if (step == null)
+                throw new IllegalArgumentException("Unknown step " + name);
+            step.optional = true;
+        }
+        return this;
+    }
+
+    /**
+     * Timings of the steps that ran so far, in order of completion.
+     */
+    public List<Timing> getTimings() {
+        synchronized (timings) {
+            return new ArrayList<>(timings);
+        }
+    }
+
+    private void dispatch(Step step) {
+        (step.onMain ? main : background).execute(() -> run(step));
+    }
+
+    private void run(Step step) {
+        if (cancelled)
+            return;
+
+        Throwable error = null;
+        if (!step.failed) {
+            long started = System.nanoTime();
+            try {
+                step.task.run();
+            } catch (RuntimeException | Error e) {
+                error = e;
+                if (!step.optional && failure == null)
+                    failure = e;
+            }
+            timings.add(new Timing(step.name, step.onMain, Thread.currentThread().getName(),
+                    started - startedNs, System.nanoTime() - started, error));
+        }
+
+        // an optional step that threw lets its dependents run, one skipped for a failed dependency does not
+        if (error != null && !step.optional)
+            step.failed = true;
+        for (Step dependent : step.dependents) {
+            if (step.failed)
+                dependent.failed = true;
+            if (dependent.remaining.decrementAndGet() == 0)
+                dispatch(dependent);
+        }
+
+        if (unfinished.decrementAndGet() == 0)
+            main.execute(this::notifyFinished);
+    }
+
+    private void notifyFinished() {
+        if (!cancelled)
+            listener.onStartupFinished(getTimings(), failure);
+    }
+
+    // Kahn's algorithm on a copy of the in-degrees
+    private void checkAcyclic() {
+        Map<Step, Integer> inDegrees = new HashMap<>();
+        List<Step> ready = new ArrayList<>();
+        for (Step step : steps.values()) {
+            inDegrees.put(step, step.dependencies.length);
+            if (step.dependencies.length == 0)
+                ready.add(step);
+        }
+
+        int visited = 0;
+        while (!ready.isEmpty()) {
+            Step step = ready.remove(ready.size() - 1);
+            visited++;
+            for (Step dependent : step.dependents) {
+                int remaining = inDegrees.get(dependent) - 1;
+                inDegrees.put(dependent, remaining);
+                if (remaining == 0)
+                    ready.add(dependent);
+            }
+        }
+
+        if (visited != steps.size())
+            throw new IllegalStateException("Startup steps form a cycle");
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.smart_login_conditions.managers;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.speech.RecognitionListener;
+import android.speech.RecognizerIntent;
+import android.speech.SpeechRecognizer;
+import android.util.Log;
+
+import com.example.smart_login_conditions.models.StatusCode;
+import com.example.smart_login_conditions.utils.PassphraseMatcher;
+
+import java.util.List;
+
+/**
+ * Listens for a voice passphrase in-process with {@link SpeechRecognizer}, and accepts it as soon
+ * as a partial hypothesis matches instead of waiting for the final result.
+ * Devices without a recognition service fall back to the in-app {@link KeywordDetector}, which
+ * needs the passphrase recorded once with {@link #recordKeyword}.
+ * Status changes are published on the {@link ConditionEventBus}.
+ * Must be used from the main thread.
+ */
+public class VoiceCommandHandler {
+
+    private static final String TAG = "VoiceCommandHandler";
+
+    public interface RecognitionReportListener {
+        /**
+         * @param timeToMatchMs time from start of listening to the match, or -1 if it did not match
+         */
+        void onRecognitionFinished(long timeToMatchMs, long durationMs);
+    }
+
+    private final Context context;
+    private final PassphraseMatcher passphrases;
+    private final Intent recognizerIntent;
+    private final ConditionEventBus events = ConditionEventBus.getInstance();
+
+    private SpeechRecognizer recognizer;
+    private KeywordDetector keywordDetector;
+    private RecognitionReportListener reportListener;
+    private boolean listening;
+    private long startedNs;
+
+    public VoiceCommandHandler(Context context, String... passphrases) {
+        this.context = context;
+        this.passphrases = new PassphraseMatcher(passphrases);
+
+        recognizerIntent = new Intent(RecognizerIntent.ACTION_RECOGNIZE_SPEECH);
+        recognizerIntent.putExtra(RecognizerIntent.EXTRA_LANGUAGE_MODEL, RecognizerIntent.LANGUAGE_MODEL_FREE_FORM);
+        recognizerIntent.putExtra(RecognizerIntent.EXTRA_LANGUAGE, "en-US");
+        recognizerIntent.putExtra(RecognizerIntent.EXTRA_PARTIAL_RESULTS, true);
+        recognizerIntent.putExtra(RecognizerIntent.EXTRA_MAX_RESULTS, 5);
+        recognizerIntent.putExtra(RecognizerIntent.EXTRA_PREFER_OFFLINE, true);
+        recognizerIntent.putExtra(RecognizerIntent.EXTRA_CALLING_PACKAGE, context.getPackageName());
+    }
+
+    public boolean isRecognitionAvailable() {
+        return SpeechRecognizer.isRecognitionAvailable(context);
+    }
+
+    public void setRecognitionReportListener(RecognitionReportListener listener) {
+        this.reportListener = listener;
+    }
+
+    public void startListening() {
+        if (!isRecognitionAvailable()) {
+            startKeywordDetection();
+            return;
+        }
+
+        if (recognizer == null)
+            recognizer = createRecognizer();
+        else if (listening)
+            recognizer.cancel();
+
+        listening = true;
+        startedNs = SystemClock.elapsedRealtimeNanos();
+        recognizer.startListening(recognizerIntent);
+        events.publish(StatusCode.VOICE_LISTENING);
+    }
+
+    public void stopListening() {
+        if (recognizer != null && listening)
+            recognizer.cancel();
+        if (keywordDetector != null)
+            keywordDetector.stop();
+        listening = false;
+    }
+
+    /**
+     * Call from the owning activity's onDestroy.
+     */
+    public void release() {
+        stopListening();
+        if (recognizer != null) {
+            recognizer.destroy();
+            recognizer = null;
+        }
+        reportListener = null;
+    }
+
+    /**
+     * Whether the passphrase is checked against recorded templates instead of being recognized,
+     * in which case it has to be recorded first with {@link #recordKeyword}.
+     */
+    public boolean usesKeywordDetection() {
+        return !isRecognitionAvailable();
+    }
+
+    /**
+     * Records the next utterance as the passphrase for the in-app keyword detector.
+     */
+    public void recordKeyword() {
+        stopListening();
+        listening = getKeywordDetector().startEnrollment(new KeywordDetector.KeywordListener() {
+            @Override
+            public void onEnrolled() {
+                stopListening();
+                events.publish(StatusCode.VOICE_ENROLLED);
+            }
+
+            @Override
+            public void onUtterance(boolean matched) {
+            }
+        });
+        events.publish(listening ? StatusCode.VOICE_RECORDING : StatusCode.VOICE_NOT_SUPPORTED);
+    }
+
+    /**
+     * Forgets every recorded passphrase.
+     */
+    public void clearKeywords() {
+        stopListening();
+        getKeywordDetector().clearTemplates();
+        events.publish(StatusCode.VOICE_NOT_ENROLLED);
+    }
+
+    private KeywordDetector getKeywordDetector() {
+        if (keywordDetector == null)
+            keywordDetector = new KeywordDetector(context);
+        return keywordDetector;
+    }
+
+    private void startKeywordDetection() {
+        KeywordDetector detector = getKeywordDetector();
+        if (!detector.hasTemplates()) {
+            events.publish(StatusCode.VOICE_NOT_ENROLLED);
+            return;
+        }
+
+        listening = detector.start(new KeywordDetector.KeywordListener() {
+            @Override
+            public void onEnrolled() {
+            }
+
+            @Override
+            public void onUtterance(boolean matched) {
+                keywordDetector.stop();
+                finish(matched ? StatusCode.VOICE_MATCHED : StatusCode.VOICE_MISMATCH);
+            }
+        });
+        if (!listening) {
+            events.publish(StatusCode.VOICE_NOT_SUPPORTED);
+            return;
+        }
+
+        startedNs = SystemClock.elapsedRealtimeNanos();
+        events.publish(StatusCode.VOICE_LISTENING);
+    }
+
+    private SpeechRecognizer createRecognizer() {
+        SpeechRecognizer speechRecognizer;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && SpeechRecognizer.isOnDeviceRecognitionAvailable(context))
+            speechRecognizer = SpeechRecognizer.createOnDeviceSpeechRecognizer(context);
+        else
+            speechRecognizer = SpeechRecognizer.createSpeechRecognizer(context);
+
+        speechRecognizer.setRecognitionListener(recognitionListener);
+        return speechRecognizer;
+    }
+
+    private boolean containsPassphrase(Bundle results) {
+        List<String> hypotheses = results == null ? null
+                : results.getStringArrayList(SpeechRecognizer.RESULTS_RECOGNITION);
+        return passphrases.indexOfAny(hypotheses) >= 0;
+    }
+
+    private void finish(StatusCode status) {
+        if (!listening)
+            return;
+
+        listening = false;
+        boolean matched = status.isPassed();
+        long elapsedMs = (SystemClock.elapsedRealtimeNanos() - startedNs) / 1_000_000;
+        Log.d(TAG, (matched ? "Matched in " : "No match after ") + elapsedMs + "ms");
+
+        events.publish(status);
+        if (reportListener != null)
+            reportListener.onRecognitionFinished(matched ? elapsedMs : -1, elapsedMs);
+    }
+
+    private final RecognitionListener recognitionListener = new RecognitionListener() {
+        @Override
+        public void onPartialResults(Bundle partialResults) {
+            if (listening && containsPassphrase(partialResults)) {
+                // no need to wait for the end of speech or the final result
+                recognizer.cancel();
+                finish(StatusCode.VOICE_MATCHED);
+            }
+        }
+
+        @Override
+        public void onResults(Bundle results) {
+            finish(containsPassphrase(results) ? StatusCode.VOICE_MATCHED : StatusCode.VOICE_MISMATCH);
+        }
+
+        @Override
+        public void onError(int error) {
+            switch (error) {
+                case SpeechRecognizer.ERROR_NO_MATCH:
+                    finish(StatusCode.VOICE_MISMATCH);
+                    break;
+                case SpeechRecognizer.ERROR_SPEECH_TIMEOUT:
+                    finish(StatusCode.VOICE_NO_SPEECH);
+                    break;
+                default:
+                    Log.w(TAG, "Recognition error " + error);
+                    finish(StatusCode.VOICE_ERROR);
+            }
+        }
+
+        @Override
+        public void onReadyForSpeech(Bundle params) {
+        }
+
+        @Override
+        public void onBeginningOfSpeech() {
+        }
+
+        @Override
+        public void onRmsChanged(float rmsdB) {
+        }
+
+        @Override
+        public void onBufferReceived(byte[] buffer) {
+        }
+
+        @Override
+        public void onEndOfSpeech() {
+        }
+
+        @Override
+        public void onEvent(int eventType, Bundle params) {
+        }
+    };
+}
@@ -8,18 +8,25 @@ public class Condition {
         AUTOMATIC
     }
 
+    private final ConditionId id;
     private String name;
     private String status;
     private ConditionType type;
     private boolean isPassed;
+    private String expectedInput;
 
-    public Condition(String name, String status, ConditionType type, boolean isPassed) {
-        this.name = name;
+    public Condition(ConditionId id, String status, boolean isPassed) {
+        this.id = id;
+        this.name = id.getDisplayName();
         this.status = status;
-        this.type = type;
+        this.type = id.getType();
         this.isPassed = isPassed;
     }
 
+    public ConditionId getId() {
+        return id;
+    }
+
     public String getName() {
         return name;
     }
@@ -36,6 +43,18 @@ public class Condition {
         return isPassed;
     }
 
+    public String getExpectedInput() {
+        return expectedInput;
+    }
+
+    public void setExpectedInput(String expectedInput) {
+        this.expectedInput = expectedInput;
+    }
+
+    public ConditionSnapshot snapshot() {
+        return new ConditionSnapshot(id, status, isPassed, expectedInput);
+    }
+
     public void setStatus(String status) {
         this.status = status;
     }
@@ -44,5 +63,3 @@ public class Condition {
         isPassed = passed;
     }
 }
-
-
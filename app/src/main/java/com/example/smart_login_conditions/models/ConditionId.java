@@ -0,0 +1,44 @@
+package com.example.smart_login_conditions.models;
+
+public enum ConditionId {
+    // costs rank what checking a condition draws: the call receiver is passive, the light sensor a
+    // fraction of a mA, the gyroscope a few mA, the microphone and recognizer more, a radio scan most
+    BLUETOOTH_DEVICE("Bluetooth Device", Condition.ConditionType.ACTION_BUTTON, 10),
+    VOICE_COMMAND("Voice Command", Condition.ConditionType.ACTION_BUTTON, 8),
+    CALL_MATCH("Call Match", Condition.ConditionType.INPUT_FIELD, 0),
+    DEVICE_SPIN("Device Spin", Condition.ConditionType.AUTOMATIC, 3),
+    ROOM_BRIGHT("Room is bright", Condition.ConditionType.AUTOMATIC, 1);
+
+    // values() clones the backing array on every call, keep one shared copy
+    private static final ConditionId[] VALUES = values();
+    public static final int COUNT = VALUES.length;
+
+    private final String displayName;
+    private final Condition.ConditionType type;
+    private final int activationCost;
+
+    ConditionId(String displayName, Condition.ConditionType type, int activationCost) {
+        this.displayName = displayName;
+        this.type = type;
+        this.activationCost = activationCost;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public Condition.ConditionType getType() {
+        return type;
+    }
+
+    /**
+     * Relative cost of running the source that checks this condition.
+     */
+    public int getActivationCost() {
+        return activationCost;
+    }
+
+    public static ConditionId fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.smart_login_conditions.models;
+
+import java.util.Objects;
+
+/**
+ * Immutable copy of a {@link Condition} handed to the UI, so list diffing can run off the main
+ * thread while the registry keeps mutating the live conditions.
+ */
+public final class ConditionSnapshot {
+
+    private final ConditionId id;
+    private final String status;
+    private final boolean passed;
+    private final String expectedInput;
+
+    ConditionSnapshot(ConditionId id, String status, boolean passed, String expectedInput) {
+        this.id = id;
+        this.status = status;
+        this.passed = passed;
+        this.expectedInput = expectedInput;
+    }
+
+    public ConditionId getId() {
+        return id;
+    }
+
+    public String getName() {
+        return id.getDisplayName();
+    }
+
+    public Condition.ConditionType getType() {
+        return id.getType();
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public boolean isPassed() {
+        return passed;
+    }
+
+    public String getExpectedInput() {
+        return expectedInput;
+    }
+
+    public boolean hasSameStatus(ConditionSnapshot other) {
+        return Objects.equals(status, other.status);
+    }
+
+    public boolean hasSameExpectedInput(ConditionSnapshot other) {
+        return Objects.equals(expectedInput, other.expectedInput);
+    }
+}
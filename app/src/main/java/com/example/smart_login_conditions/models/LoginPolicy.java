@@ -0,0 +1,140 @@
+package com.example.smart_login_conditions.models;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What it takes to log in: conditions combined with all-of, any-of and at-least-k-of-n nodes. A
+ * condition may appear once, and may count only for a while after it passed.
+ */
+public final class LoginPolicy {
+
+    private final ConditionId condition;
+    private final long ttlMs;
+    private final int required;
+    private final List<LoginPolicy> children;
+
+    private LoginPolicy(ConditionId condition, long ttlMs, int required, List<LoginPolicy> children) {
+        this.condition = condition;
+        this.ttlMs = ttlMs;
+        this.required = required;
+        this.children = children;
+    }
+
+    public static LoginPolicy condition(ConditionId id) {
+        return condition(id, 0);
+    }
+
+    /**
+     * @param ttlMs how long a pass counts, or 0 for as long as the condition keeps holding
+     */
+    public static LoginPolicy condition(ConditionId id, long ttlMs) {
+        if (id == null)
+            throw new IllegalArgumentException("Missing condition");
+        if (ttlMs < 0)
+            throw new IllegalArgumentException("Negative TTL for " + id);
+        return new LoginPolicy(id, ttlMs, 1, Collections.emptyList());
+    }
+
+    public static LoginPolicy allOf(LoginPolicy... children) {
+        return atLeast(children.length, children);
+    }
+
+    public static LoginPolicy anyOf(LoginPolicy... children) {
+        return atLeast(1, children);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code required} is not between 1 and the number of
+     *                                  children, or a condition appears twice
+     */
+    public static LoginPolicy atLeast(int required, LoginPolicy... children) {
+        if (children.length == 0)
+            throw new IllegalArgumentException("No conditions");
+        if (required < 1 || required > children.length)
+            throw new IllegalArgumentException("Cannot require " + required + " of " + children.length);
+
+        Set<ConditionId> seen = EnumSet.noneOf(ConditionId.class);
+        for (LoginPolicy child : children) {
+            for (ConditionId id : child.getConditions()) {
+                if (!seen.add(id))
+                    throw new IllegalArgumentException(id + " appears more than once");
+            }
+        }
+        return new LoginPolicy(null, 0, required, Collections.unmodifiableList(Arrays.asList(children.clone())));
+    }
+
+    public boolean isCondition() {
+        return condition != null;
+    }
+
+    /**
+     * Null for all-of, any-of and k-of-n nodes.
+     */
+    public ConditionId getCondition() {
+        return condition;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    /**
+     * How many children have to pass; 1 for a condition.
+     */
+    public int getRequired() {
+        return required;
+    }
+
+    public List<LoginPolicy> getChildren() {
+        return children;
+    }
+
+    public Set<ConditionId> getConditions() {
+        Set<ConditionId> ids = EnumSet.noneOf(ConditionId.class);
+        collectConditions(ids);
+        return ids;
+    }
+
+    /**
+     * Cost of the cheapest way to satisfy this: a condition's activation cost, or the sum over the
+     * cheapest children a node requires.
+     */
+    public int getCost() {
+        if (isCondition())
+            return condition.getActivationCost();
+
+        int[] costs = new int[children.size()];
+        for (int i = 0; i < costs.length; i++)
+            costs[i] = children.get(i).getCost();
+        Arrays.sort(costs);
+
+        int cost = 0;
+        for (int i = 0; i < required; i++)
+            cost += costs[i];
+        return cost;
+    }
+
+    private void collectConditions(Set<ConditionId> ids) {
+        if (isCondition()) {
+            ids.add(condition);
+            return;
+        }
+        for (LoginPolicy child : children)
+            child.collectConditions(ids);
+    }
+
+    @Override
+    public String toString() {
+        if (isCondition())
+            return ttlMs > 0 ? condition + "(" + ttlMs + "ms)" : condition.toString();
+        if (required == children.size())
+            return "all" + children;
+        if (required == 1)
+            return "any" + children;
+        return required + "of" + children;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.smart_login_conditions.models;
+
+import java.util.Locale;
+
+/**
+ * Everything a condition can report, with the condition it belongs to and the outcome it stands for.
+ * Producers publish the code, and the text is built only when the UI shows it; codes without an
+ * argument always format to the same string instance.
+ */
+public enum StatusCode {
+    BLUETOOTH_SCANNING(ConditionId.BLUETOOTH_DEVICE, Outcome.PENDING, "🔍 Scanning..."),
+    BLUETOOTH_IDLE(ConditionId.BLUETOOTH_DEVICE, Outcome.PENDING, "⏸ Not Checked"),
+    DEVICE_FOUND(ConditionId.BLUETOOTH_DEVICE, Outcome.PASSED, "✔ %s Found"),
+    DEVICE_SEEN_RECENTLY(ConditionId.BLUETOOTH_DEVICE, Outcome.PASSED, "✔ %s Seen Recently"),
+    DEVICE_CONNECTED(ConditionId.BLUETOOTH_DEVICE, Outcome.PASSED, "✔ Connected to %s"),
+    DEVICE_NOT_FOUND(ConditionId.BLUETOOTH_DEVICE, Outcome.FAILED, "❌ Not Found"),
+    LOCATION_OFF(ConditionId.BLUETOOTH_DEVICE, Outcome.FAILED, "❌ Location Off"),
+    BLUETOOTH_OFF(ConditionId.BLUETOOTH_DEVICE, Outcome.FAILED, "❌ Bluetooth Off"),
+    BLUETOOTH_UNAVAILABLE(ConditionId.BLUETOOTH_DEVICE, Outcome.FAILED, "❌ Bluetooth Unavailable"),
+
+    VOICE_LISTENING(ConditionId.VOICE_COMMAND, Outcome.PENDING, "🎤 Listening..."),
+    VOICE_RECORDING(ConditionId.VOICE_COMMAND, Outcome.PENDING, "🎤 Say the passphrase to record it..."),
+    VOICE_ENROLLED(ConditionId.VOICE_COMMAND, Outcome.PENDING, "🎤 Passphrase recorded"),
+    VOICE_NOT_ENROLLED(ConditionId.VOICE_COMMAND, Outcome.FAILED, "❌ No passphrase recorded, long-press to record"),
+    VOICE_MATCHED(ConditionId.VOICE_COMMAND, Outcome.PASSED, "✔ Password matched"),
+    VOICE_MISMATCH(ConditionId.VOICE_COMMAND, Outcome.FAILED, "❌ Wrong Password"),
+    VOICE_NO_SPEECH(ConditionId.VOICE_COMMAND, Outcome.FAILED, "❌ No Speech"),
+    VOICE_ERROR(ConditionId.VOICE_COMMAND, Outcome.FAILED, "❌ Recognition Error"),
+    VOICE_NOT_SUPPORTED(ConditionId.VOICE_COMMAND, Outcome.FAILED, "❌ Not Supported"),
+
+    // not a status: the argument is the new expected input
+    CALLER_UPDATED(ConditionId.CALL_MATCH, Outcome.PENDING, null),
+    // the previous caller's result no longer counts
+    CALL_WAITING(ConditionId.CALL_MATCH, Outcome.PENDING, "Waiting..."),
+    CALL_MATCHED(ConditionId.CALL_MATCH, Outcome.PASSED, "✔ Password matched"),
+    CALL_MISMATCH(ConditionId.CALL_MATCH, Outcome.FAILED, "❌ Incorrect password"),
+
+    SPIN_DETECTED(ConditionId.DEVICE_SPIN, Outcome.PASSED, "✔ 2 Spins Detected!"),
+    NO_GYROSCOPE(ConditionId.DEVICE_SPIN, Outcome.FAILED, "❌ No Gyroscope"),
+
+    ROOM_BRIGHT(ConditionId.ROOM_BRIGHT, Outcome.PASSED, "✔ Room is Bright"),
+    ROOM_DARK(ConditionId.ROOM_BRIGHT, Outcome.FAILED, "❌ Room is Dark"),
+    NO_LIGHT_SENSOR(ConditionId.ROOM_BRIGHT, Outcome.FAILED, "❌ No Light Sensor");
+
+    public enum Outcome {
+        PASSED,
+        FAILED,
+        // still being checked
+        PENDING
+    }
+
+    private final ConditionId condition;
+    private final Outcome outcome;
+    private final String template;
+    private final boolean takesArgument;
+
+    StatusCode(ConditionId condition, Outcome outcome, String template) {
+        this.condition = condition;
+        this.outcome = outcome;
+        this.template = template;
+        this.takesArgument = template != null && template.contains("%s");
+    }
+
+    public ConditionId getCondition() {
+        return condition;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isPassed() {
+        return outcome == Outcome.PASSED;
+    }
+
+    /**
+     * False for codes that carry data for the condition rather than a status to show.
+     */
+    public boolean isStatus() {
+        return template != null;
+    }
+
+    public boolean takesArgument() {
+        return takesArgument;
+    }
+
+    public String format(String argument) {
+        if (!takesArgument)
+            return template;
+        return String.format(Locale.ROOT, template, argument);
+    }
+}
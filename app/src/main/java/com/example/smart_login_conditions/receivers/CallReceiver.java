@@ -1,17 +1,28 @@
 package com.example.smart_login_conditions.receivers;
 
 import android.content.BroadcastReceiver;
-import android.content.ContentResolver;
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
-import android.database.Cursor;
-import android.net.Uri;
-import android.provider.ContactsContract;
 import android.telephony.TelephonyManager;
 import android.util.Log;
 
+import com.example.smart_login_conditions.managers.CallLogResolver;
+import com.example.smart_login_conditions.managers.CallerHistoryStore;
+import com.example.smart_login_conditions.managers.ConditionEventBus;
+import com.example.smart_login_conditions.managers.ContactNameResolver;
+import com.example.smart_login_conditions.models.StatusCode;
+
+import java.io.IOException;
+
 public class CallReceiver extends BroadcastReceiver {
+    // calls log within a few seconds of the first ringing broadcast
+    private static final long CALL_LOG_SLACK_MS = 5000;
+    private static final long CALL_LOG_TIMEOUT_MS = 3000;
+
+    // receivers are created per broadcast, the state of the current call lives here
+    private static boolean numberSeen;
+    private static long unresolvedRingingSinceMs;
+
     @Override
     public void onReceive(Context context, Intent intent) {
         if (TelephonyManager.ACTION_PHONE_STATE_CHANGED.equals(intent.getAction())) {
@@ -22,56 +33,77 @@ public class CallReceiver extends BroadcastReceiver {
                 String incomingNumber = intent.getStringExtra(TelephonyManager.EXTRA_INCOMING_NUMBER);
 
                 if (incomingNumber != null && !incomingNumber.isEmpty()) {
-                    String contactName = getContactName(context, incomingNumber);
-
-                    if (contactName != null) {
-                        Log.d("CallReceiver", "Incoming call from: " + contactName);
+                    numberSeen = true;
+                    resolveNumber(context, incomingNumber);
+                } else if (!numberSeen && unresolvedRingingSinceMs == 0) {
+                    // the number is withheld, or comes in a second broadcast; the call log has it once the call ends
+                    unresolvedRingingSinceMs = System.currentTimeMillis();
+                }
+            } else if (TelephonyManager.EXTRA_STATE_IDLE.equals(state)) {
+                long ringingSinceMs = unresolvedRingingSinceMs;
+                boolean resolved = numberSeen;
+                numberSeen = false;
+                unresolvedRingingSinceMs = 0;
 
-                        // Save only incoming ringing calls
-                        SharedPreferences prefs = context.getSharedPreferences("CallLog", Context.MODE_PRIVATE);
-                        prefs.edit()
-                                .putString("last_caller_name", contactName)
-                                .putLong("last_call_timestamp", System.currentTimeMillis())
-                                .apply();
+                if (!resolved && ringingSinceMs != 0)
+                    resolveFromCallLog(context, ringingSinceMs);
+            }
+        }
+    }
 
-                        Intent updateIntent = new Intent("com.example.smart_login_conditions.CALLER_UPDATED");
-                        context.sendBroadcast(updateIntent);
+    private void resolveNumber(Context context, String number) {
+        Context appContext = context.getApplicationContext();
+        ContactNameResolver resolver = ContactNameResolver.getInstance(appContext);
+        PendingResult pendingResult = goAsync();
 
-                    }
-                }
+        resolver.getExecutor().execute(() -> {
+            try {
+                String contactName = resolver.resolve(number);
+                if (contactName != null)
+                    saveLastCaller(appContext, contactName);
+            } finally {
+                pendingResult.finish();
             }
-        }
+        });
     }
 
-    private String getContactName(Context context, String incomingNumber) {
-        ContentResolver cr = context.getContentResolver();
-        Uri uri = Uri.withAppendedPath(ContactsContract.PhoneLookup.CONTENT_FILTER_URI, Uri.encode(incomingNumber));
-        Cursor cursor = cr.query(uri, new String[]{ContactsContract.PhoneLookup.DISPLAY_NAME}, null, null, null);
-        if (cursor != null) {
-            if (cursor.moveToFirst()) {
-                String name = cursor.getString(0);
-                cursor.close();
-                return name;
+    private void resolveFromCallLog(Context context, long ringingSinceMs) {
+        Context appContext = context.getApplicationContext();
+        ContactNameResolver resolver = ContactNameResolver.getInstance(appContext);
+        CallLogResolver callLog = CallLogResolver.getInstance(appContext);
+        PendingResult pendingResult = goAsync();
+
+        resolver.getExecutor().execute(() -> {
+            try {
+                CallLogResolver.Call call = callLog.awaitIncomingCallSince(
+                        ringingSinceMs - CALL_LOG_SLACK_MS, CALL_LOG_TIMEOUT_MS);
+                if (call == null)
+                    return;
+
+                String contactName = call.cachedName != null && !call.cachedName.isEmpty()
+                        ? call.cachedName : resolver.resolve(call.number);
+                if (contactName != null)
+                    saveLastCaller(appContext, contactName);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                pendingResult.finish();
             }
-            cursor.close();
-        }
-        return null;
+        });
     }
 
-    private String getLastCallNumber(Context context) {
-        Cursor cursor = context.getContentResolver().query(
-                android.provider.CallLog.Calls.CONTENT_URI,
-                null, null, null,
-                android.provider.CallLog.Calls.DATE + " DESC"
-        );
-
-        if (cursor != null && cursor.moveToFirst()) {
-            String number = cursor.getString(cursor.getColumnIndexOrThrow(android.provider.CallLog.Calls.NUMBER));
-            cursor.close();
-            return number;
+    private void saveLastCaller(Context context, String contactName) {
+        Log.d("CallReceiver", "Incoming call from: " + contactName);
+
+        // Save only incoming ringing calls
+        long timestamp = System.currentTimeMillis();
+        try {
+            CallerHistoryStore.getInstance(context.getFilesDir()).append(contactName, timestamp);
+        } catch (IOException e) {
+            Log.e("CallReceiver", "Cannot write caller history", e);
         }
-        return null;
+
+        ConditionEventBus.getInstance().publish(StatusCode.CALLER_UPDATED, contactName);
     }
 
 }
-
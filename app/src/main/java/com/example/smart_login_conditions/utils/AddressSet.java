@@ -0,0 +1,108 @@
+package com.example.smart_login_conditions.utils;
+
+import java.util.Arrays;
+
+/**
+ * Set of 48-bit Bluetooth addresses packed into longs, stored with open addressing and linear
+ * probing. Used to skip repeat reports of the same device during one scan.
+ */
+public class AddressSet {
+
+    private static final long EMPTY = 0;
+
+    private long[] slots;
+    private int size;
+
+    public AddressSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        slots = new long[capacity];
+    }
+
+    /**
+     * Returns true if the address was not in the set yet.
+     */
+    public boolean add(long address) {
+        // addresses are 48 bits, so +1 never overflows and keeps 0 free as the empty marker
+        long key = address + 1;
+        int mask = slots.length - 1;
+        int index = mix(key) & mask;
+
+        while (slots[index] != EMPTY) {
+            if (slots[index] == key)
+                return false;
+            index = (index + 1) & mask;
+        }
+
+        slots[index] = key;
+        if (++size * 2 > slots.length)
+            grow();
+        return true;
+    }
+
+    public boolean contains(long address) {
+        long key = address + 1;
+        int mask = slots.length - 1;
+        int index = mix(key) & mask;
+
+        while (slots[index] != EMPTY) {
+            if (slots[index] == key)
+                return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Parses "AA:BB:CC:DD:EE:FF" into a long, or returns -1 if the text is not an address.
+     */
+    public static long parse(CharSequence address) {
+        if (address == null || address.length() != 17)
+            return -1;
+
+        long value = 0;
+        for (int i = 0; i < 17; i++) {
+            char c = address.charAt(i);
+            if (i % 3 == 2) {
+                if (c != ':')
+                    return -1;
+                continue;
+            }
+
+            int digit = Character.digit(c, 16);
+            if (digit < 0)
+                return -1;
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        int mask = slots.length - 1;
+
+        for (long key : old) {
+            if (key == EMPTY)
+                continue;
+
+            int index = mix(key) & mask;
+            while (slots[index] != EMPTY)
+                index = (index + 1) & mask;
+            slots[index] = key;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.smart_login_conditions.utils;
+
+/**
+ * Case-insensitive, whitespace-trimmed comparison against a caller name that is normalized once
+ * up front, so matching a keystroke does not allocate.
+ */
+public class CallerNameMatcher {
+
+    private String source;
+    private char[] expected;
+
+    public void setExpected(String name) {
+        if (name == source)
+            return;
+
+        source = name;
+        expected = normalize(name);
+    }
+
+    public boolean hasExpected() {
+        return expected != null;
+    }
+
+    public boolean matches(CharSequence input) {
+        if (expected == null || input == null)
+            return false;
+
+        int start = 0;
+        int end = input.length();
+        while (start < end && Character.isWhitespace(input.charAt(start)))
+            start++;
+        while (end > start && Character.isWhitespace(input.charAt(end - 1)))
+            end--;
+
+        if (end - start != expected.length)
+            return false;
+
+        for (int i = 0; i < expected.length; i++) {
+            if (Character.toLowerCase(input.charAt(start + i)) != expected[i])
+                return false;
+        }
+        return true;
+    }
+
+    private static char[] normalize(String name) {
+        if (name == null)
+            return null;
+
+        String trimmed = name.trim();
+        if (trimmed.isEmpty())
+            return null;
+
+        char[] chars = new char[trimmed.length()];
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = Character.toLowerCase(trimmed.charAt(i));
+        return chars;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.smart_login_conditions.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory map from normalized phone number to contact name, updated one contact at a time.
+ * Not thread-safe; keep it confined to one thread.
+ */
+public class ContactsIndex {
+
+    private static class Entry {
+        final long contactId;
+        final String name;
+
+        Entry(long contactId, String name) {
+            this.contactId = contactId;
+            this.name = name;
+        }
+    }
+
+    private final Map<String, Entry> entriesByNumber = new HashMap<>();
+    private final Map<Long, List<String>> numbersByContact = new HashMap<>();
+
+    public String lookup(String normalizedNumber) {
+        Entry entry = normalizedNumber == null ? null : entriesByNumber.get(normalizedNumber);
+        return entry == null ? null : entry.name;
+    }
+
+    public void put(long contactId, String normalizedNumber, String name) {
+        if (normalizedNumber == null || normalizedNumber.isEmpty() || name == null)
+            return;
+
+        List<String> numbers = numbersByContact.get(contactId);
+        if (numbers == null) {
+            numbers = new ArrayList<>(2);
+            numbersByContact.put(contactId, numbers);
+        }
+        if (!numbers.contains(normalizedNumber))
+            numbers.add(normalizedNumber);
+        entriesByNumber.put(normalizedNumber, new Entry(contactId, name));
+    }
+
+    /**
+     * Drops every number of the contact, typically before re-adding its current numbers.
+     */
+    public void removeContact(long contactId) {
+        List<String> numbers = numbersByContact.remove(contactId);
+        if (numbers == null)
+            return;
+
+        for (String number : numbers) {
+            Entry entry = entriesByNumber.get(number);
+            // a number shared by two contacts belongs to whichever was indexed last
+            if (entry != null && entry.contactId == contactId)
+                entriesByNumber.remove(number);
+        }
+    }
+
+    public int size() {
+        return entriesByNumber.size();
+    }
+
+    public void clear() {
+        entriesByNumber.clear();
+        numbersByContact.clear();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.smart_login_conditions.utils;
+
+import com.example.smart_login_conditions.models.ConditionId;
+
+/**
+ * Matches typed input against the expected value once typing settles. A single instance lives
+ * for the lifetime of a row and is rebound to whichever condition the row currently shows.
+ */
+public class DebouncedInputMatcher {
+
+    public static final long DEFAULT_DELAY_MS = 250;
+
+    public interface Scheduler {
+        void schedule(Runnable task, long delayMs);
+
+        void cancel(Runnable task);
+    }
+
+    public interface OnMatchResultListener {
+        void onMatchResult(ConditionId id, CharSequence input, boolean matched);
+    }
+
+    private final Scheduler scheduler;
+    private final long delayMs;
+    private final CallerNameMatcher matcher = new CallerNameMatcher();
+    private final Runnable matchTask = this::runMatch;
+
+    private OnMatchResultListener listener;
+    private ConditionId boundId;
+    private CharSequence pendingInput;
+
+    public DebouncedInputMatcher(Scheduler scheduler, long delayMs) {
+        this.scheduler = scheduler;
+        this.delayMs = delayMs;
+    }
+
+    public void setOnMatchResultListener(OnMatchResultListener listener) {
+        this.listener = listener;
+    }
+
+    public void bind(ConditionId id, String expected) {
+        scheduler.cancel(matchTask);
+        pendingInput = null;
+        boundId = id;
+        matcher.setExpected(expected);
+    }
+
+    public void unbind() {
+        scheduler.cancel(matchTask);
+        pendingInput = null;
+        boundId = null;
+    }
+
+    public void onInput(CharSequence input) {
+        if (boundId == null)
+            return;
+
+        pendingInput = input;
+        scheduler.cancel(matchTask);
+        scheduler.schedule(matchTask, delayMs);
+    }
+
+    private void runMatch() {
+        CharSequence input = pendingInput;
+        pendingInput = null;
+        if (boundId == null || input == null || listener == null)
+            return;
+
+        listener.onMatchResult(boundId, input, matcher.matches(input));
+    }
+}
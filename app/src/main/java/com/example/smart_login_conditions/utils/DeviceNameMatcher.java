@@ -0,0 +1,167 @@
+package com.example.smart_login_conditions.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Case-insensitive "name contains any of these patterns" check, compiled once into an
+ * Aho-Corasick automaton. A lookup is one table read per character of the device name, no
+ * matter how many patterns are configured, and it does not allocate.
+ */
+public class DeviceNameMatcher {
+
+    private final String[] patterns;
+
+    // characters outside every pattern share class 0
+    private final int[] asciiClasses = new int[128];
+    private final char[] otherChars;
+    private final int[] otherClasses;
+    private final int classCount;
+
+    private final int[] transitions;
+    private final int[] outputs;
+
+    public DeviceNameMatcher(String... patterns) {
+        if (patterns.length == 0)
+            throw new IllegalArgumentException("At least one pattern is required");
+
+        this.patterns = patterns.clone();
+        String[] lowered = new String[patterns.length];
+        StringBuilder nonAscii = new StringBuilder();
+        for (int i = 0; i < patterns.length; i++) {
+            if (patterns[i] == null || patterns[i].isEmpty())
+                throw new IllegalArgumentException("Patterns must not be empty");
+
+            lowered[i] = lower(patterns[i]);
+            for (int j = 0; j < lowered[i].length(); j++) {
+                char c = lowered[i].charAt(j);
+                if (c < 128)
+                    asciiClasses[c] = 1;
+                else if (nonAscii.indexOf(String.valueOf(c)) < 0)
+                    nonAscii.append(c);
+            }
+        }
+
+        int nextClass = 1;
+        for (int c = 0; c < 128; c++) {
+            if (asciiClasses[c] != 0)
+                asciiClasses[c] = nextClass++;
+        }
+        otherChars = nonAscii.toString().toCharArray();
+        Arrays.sort(otherChars);
+        otherClasses = new int[otherChars.length];
+        for (int i = 0; i < otherChars.length; i++)
+            otherClasses[i] = nextClass++;
+        classCount = nextClass;
+
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> trieOutputs = new ArrayList<>();
+        trie.add(newRow());
+        trieOutputs.add(-1);
+
+        for (int i = 0; i < lowered.length; i++) {
+            int state = 0;
+            for (int j = 0; j < lowered[i].length(); j++) {
+                int cls = classOf(lowered[i].charAt(j));
+                if (trie.get(state)[cls] == -1) {
+                    trie.get(state)[cls] = trie.size();
+                    trie.add(newRow());
+                    trieOutputs.add(-1);
+                }
+                state = trie.get(state)[cls];
+            }
+            if (trieOutputs.get(state) == -1)
+                trieOutputs.set(state, i);
+        }
+
+        int states = trie.size();
+        transitions = new int[states * classCount];
+        outputs = new int[states];
+        int[] fail = new int[states];
+        for (int s = 0; s < states; s++)
+            outputs[s] = trieOutputs.get(s);
+
+        // breadth-first, so a state's fail target is always finished before the state itself
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int cls = 0; cls < classCount; cls++) {
+            int child = trie.get(0)[cls];
+            if (child == -1) {
+                transitions[cls] = 0;
+            } else {
+                transitions[cls] = child;
+                fail[child] = 0;
+                queue.add(child);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            if (outputs[state] == -1)
+                outputs[state] = outputs[fail[state]];
+
+            for (int cls = 0; cls < classCount; cls++) {
+                int child = trie.get(state)[cls];
+                int fallback = transitions[fail[state] * classCount + cls];
+                if (child == -1) {
+                    transitions[state * classCount + cls] = fallback;
+                } else {
+                    transitions[state * classCount + cls] = child;
+                    fail[child] = fallback;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the pattern found in {@code name}, or -1. When several patterns occur,
+     * the one that ends first in the name wins.
+     */
+    public int indexIn(CharSequence name) {
+        if (name == null)
+            return -1;
+
+        int state = 0;
+        for (int i = 0; i < name.length(); i++) {
+            state = transitions[state * classCount + classOf(Character.toLowerCase(name.charAt(i)))];
+            if (outputs[state] != -1)
+                return outputs[state];
+        }
+        return -1;
+    }
+
+    public boolean matches(CharSequence name) {
+        return indexIn(name) != -1;
+    }
+
+    public int getPatternCount() {
+        return patterns.length;
+    }
+
+    public String getPattern(int index) {
+        return patterns[index];
+    }
+
+    private int classOf(char c) {
+        if (c < 128)
+            return asciiClasses[c];
+
+        int index = Arrays.binarySearch(otherChars, c);
+        return index < 0 ? 0 : otherClasses[index];
+    }
+
+    private int[] newRow() {
+        int[] row = new int[classCount];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static String lower(String pattern) {
+        char[] chars = new char[pattern.length()];
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = Character.toLowerCase(pattern.charAt(i));
+        return new String(chars);
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.smart_login_conditions.utils;
+
+import java.util.List;
+
+/**
+ * Decides whether a recognizer hypothesis is one of the configured passphrases, tolerating the
+ * near-misses speech recognition produces ("pass word", "passwerd").
+ *
+ * Hypothesis and phrases are compared whole, after dropping case, spaces and punctuation, so a
+ * sentence that merely contains the phrase does not pass. A hypothesis matches if it is within a
+ * few edits of a phrase, or if it sounds the same under a Soundex-like code and is still within a
+ * looser number of edits; the code alone collides with too many unrelated words ("buzzard",
+ * "pizza red"). Each phrase is compiled once into bit-parallel Levenshtein automata for its
+ * spelling and its code; a check is a handful of word operations per character and does not
+ * allocate.
+ * Not thread-safe, it reuses its buffers.
+ */
+public class PassphraseMatcher {
+
+    // one edit allowed per this many characters of the phrase
+    private static final int CHARS_PER_EDIT = 4;
+    // the same, for a hypothesis that sounds like the phrase
+    private static final int CHARS_PER_SOUND_EDIT = 2;
+    private static final int MAX_LENGTH = 64;
+    // shorter codes sound like too many other words
+    private static final int MIN_CODE_LENGTH = 4;
+
+    private final String[] phrases;
+    private final Automaton[] spellings;
+    private final Automaton[] looseSpellings;
+    private final Automaton[] sounds;
+
+    private final char[] normalized = new char[MAX_LENGTH + 1];
+    private final char[] encoded = new char[MAX_LENGTH + 1];
+
+    public PassphraseMatcher(String... phrases) {
+        if (phrases.length == 0)
+            throw new IllegalArgumentException("At least one phrase is required");
+
+        this.phrases = phrases.clone();
+        spellings = new Automaton[phrases.length];
+        looseSpellings = new Automaton[phrases.length];
+        sounds = new Automaton[phrases.length];
+        for (int i = 0; i < phrases.length; i++) {
+            int length = phrases[i] == null ? -1 : normalize(phrases[i], normalized);
+            if (length <= 0 || length > MAX_LENGTH)
+                throw new IllegalArgumentException("Phrase must have 1 to " + MAX_LENGTH + " letters: " + phrases[i]);
+
+            spellings[i] = new Automaton(normalized, length, length / CHARS_PER_EDIT);
+            looseSpellings[i] = new Automaton(normalized, length, length / CHARS_PER_SOUND_EDIT);
+            int codeLength = encode(normalized, length, encoded);
+            sounds[i] = codeLength < MIN_CODE_LENGTH ? null : new Automaton(encoded, codeLength, 0);
+        }
+    }
+
+    public String getPhrase(int index) {
+        return phrases[index];
+    }
+
+    /**
+     * @return index of the matching phrase, or -1
+     */
+    public int indexOf(CharSequence hypothesis) {
+        if (hypothesis == null)
+            return -1;
+
+        int length = normalize(hypothesis, normalized);
+        if (length <= 0)
+            return -1;
+
+        for (int i = 0; i < spellings.length; i++) {
+            if (spellings[i].accepts(normalized, length))
+                return i;
+        }
+
+        int codeLength = encode(normalized, length, encoded);
+        for (int i = 0; i < sounds.length; i++) {
+            if (sounds[i] != null && sounds[i].accepts(encoded, codeLength)
+                    && looseSpellings[i].accepts(normalized, length))
+                return i;
+        }
+        return -1;
+    }
+
+    public boolean matches(CharSequence hypothesis) {
+        return indexOf(hypothesis) >= 0;
+    }
+
+    /**
+     * Checks an n-best list in the recognizer's order of confidence.
+     *
+     * @return index of the phrase matched by the most confident hypothesis, or -1
+     */
+    public int indexOfAny(List<? extends CharSequence> hypotheses) {
+        if (hypotheses == null)
+            return -1;
+
+        for (int i = 0; i < hypotheses.size(); i++) {
+            int index = indexOf(hypotheses.get(i));
+            if (index >= 0)
+                return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Lower-cased letters and digits only.
+     *
+     * @return the normalized length, or -1 if it does not fit in {@link #MAX_LENGTH}
+     */
+    static int normalize(CharSequence text, char[] out) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c))
+                continue;
+            if (length == MAX_LENGTH)
+                return -1;
+            out[length++] = Character.toLowerCase(c);
+        }
+        return length;
+    }
+
+    /**
+     * Soundex without the padding: the first letter is kept as is, after it vowels and h, w, y
+     * are dropped, similar sounding consonants share a digit and repeats collapse.
+     */
+    static int encode(char[] text, int length, char[] out) {
+        if (length == 0)
+            return 0;
+
+        out[0] = text[0];
+        int codeLength = 1;
+        char previous = soundClass(text[0]);
+        for (int i = 1; i < length; i++) {
+            char code = soundClass(text[i]);
+            if (code != 0 && code != previous)
+                out[codeLength++] = code;
+            previous = code;
+        }
+        return codeLength;
+    }
+
+    private static char soundClass(char c) {
+        switch (c) {
+            case 'b': case 'f': case 'p': case 'v':
+                return '1';
+            case 'c': case 'g': case 'j': case 'k': case 'q': case 's': case 'x': case 'z':
+                return '2';
+            case 'd': case 't':
+                return '3';
+            case 'l':
+                return '4';
+            case 'm': case 'n':
+                return '5';
+            case 'r':
+                return '6';
+            case 'a': case 'e': case 'i': case 'o': case 'u': case 'h': case 'w': case 'y':
+                return 0;
+            default:
+                // digits and other scripts stand for themselves
+                return c;
+        }
+    }
+
+    /**
+     * Myers' bit-vector edit distance against one fixed pattern of up to 64 characters.
+     */
+    private static final class Automaton {
+
+        private final long[] asciiMasks = new long[128];
+        private final char[] otherChars;
+        private final long[] otherMasks;
+        private final int length;
+        private final int maxEdits;
+        private final long lastBit;
+
+        Automaton(char[] pattern, int length, int maxEdits) {
+            this.length = length;
+            this.maxEdits = maxEdits;
+            this.lastBit = 1L << (length - 1);
+
+            StringBuilder others = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                char c = pattern[i];
+                if (c < 128)
+                    asciiMasks[c] |= 1L << i;
+                else if (others.indexOf(String.valueOf(c)) < 0)
+                    others.append(c);
+            }
+            otherChars = others.toString().toCharArray();
+            otherMasks = new long[otherChars.length];
+            for (int i = 0; i < length; i++) {
+                for (int j = 0; j < otherChars.length; j++) {
+                    if (pattern[i] == otherChars[j])
+                        otherMasks[j] |= 1L << i;
+                }
+            }
+        }
+
+        boolean accepts(char[] text, int textLength) {
+            if (Math.abs(textLength - length) > maxEdits)
+                return false;
+
+            long positive = lastBit | (lastBit - 1);
+            long negative = 0;
+            int score = length;
+            for (int i = 0; i < textLength; i++) {
+                long equal = mask(text[i]);
+                long vertical = equal | negative;
+                long horizontal = (((equal & positive) + positive) ^ positive) | equal;
+                long horizontalPositive = negative | ~(horizontal | positive);
+                long horizontalNegative = positive & horizontal;
+
+                if ((horizontalPositive & lastBit) != 0)
+                    score++;
+                else if ((horizontalNegative & lastBit) != 0)
+                    score--;
+
+                // the score can drop by at most one per remaining character
+                if (score - (textLength - 1 - i) > maxEdits)
+                    return false;
+
+                // the first row of the edit distance matrix grows by one per text character
+                horizontalPositive = (horizontalPositive << 1) | 1;
+                horizontalNegative <<= 1;
+                positive = horizontalNegative | ~(vertical | horizontalPositive);
+                negative = horizontalPositive & vertical;
+            }
+            return score <= maxEdits;
+        }
+
+        private long mask(char c) {
+            if (c < 128)
+                return asciiMasks[c];
+            for (int i = 0; i < otherChars.length; i++) {
+                if (otherChars[i] == c)
+                    return otherMasks[i];
+            }
+            return 0;
+        }
+    }
+}
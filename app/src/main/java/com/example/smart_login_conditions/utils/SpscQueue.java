@@ -0,0 +1,75 @@
+package com.example.smart_login_conditions.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for exactly one producer thread and one consumer thread. Each side only
+ * writes its own index, so offer and poll are a couple of plain reads and one ordered write each.
+ */
+public class SpscQueue<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    // written by the consumer only
+    private final AtomicLong head = new AtomicLong();
+    // written by the producer only
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public SpscQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException("capacity: " + capacity);
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Producer thread only.
+     *
+     * @return false if the queue is full
+     */
+    public boolean offer(T item) {
+        if (item == null)
+            throw new NullPointerException();
+
+        long t = tail.get();
+        if (t - head.get() > mask)
+            return false;
+
+        slots.lazySet((int) t & mask, item);
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Consumer thread only.
+     *
+     * @return the oldest item, or null if the queue is empty
+     */
+    public T poll() {
+        long h = head.get();
+        if (h == tail.get())
+            return null;
+
+        int index = (int) h & mask;
+        T item = slots.get(index);
+        slots.lazySet(index, null);
+        head.lazySet(h + 1);
+        return item;
+    }
+
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+}
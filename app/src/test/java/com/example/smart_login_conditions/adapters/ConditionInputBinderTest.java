@@ -0,0 +1,138 @@
+package com.example.smart_login_conditions.adapters;
+
+import com.example.smart_login_conditions.models.ConditionId;
+import com.example.smart_login_conditions.utils.DebouncedInputMatcher;
+import com.example.smart_login_conditions.utils.ManualScheduler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ConditionInputBinderTest {
+
+    // an EditText with the row's TextWatcher on it: every change reaches the binder
+    private static class FakeInputView implements ConditionInputBinder.InputView {
+        ConditionInputBinder binder;
+        String text = "";
+        CharSequence hint;
+
+        @Override
+        public void setText(CharSequence text) {
+            this.text = text.toString();
+            binder.onTextChanged(text);
+        }
+
+        @Override
+        public void setHint(CharSequence hint) {
+            this.hint = hint;
+        }
+
+        void type(String typed) {
+            for (char c : typed.toCharArray())
+                setText(text + c);
+        }
+    }
+
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final Map<ConditionId, String> inputValues = new EnumMap<>(ConditionId.class);
+    private final List<Boolean> results = new ArrayList<>();
+    private final FakeInputView view = new FakeInputView();
+    private ConditionInputBinder binder;
+
+    @Before
+    public void setUp() {
+        DebouncedInputMatcher matcher = new DebouncedInputMatcher(scheduler, DebouncedInputMatcher.DEFAULT_DELAY_MS);
+        matcher.setOnMatchResultListener((id, input, matched) -> results.add(matched));
+        binder = new ConditionInputBinder(view, matcher, inputValues);
+        view.binder = binder;
+    }
+
+    private void bindCallMatch(String caller) {
+        binder.bind(ConditionId.CALL_MATCH);
+        binder.bindExpectedInput(ConditionId.CALL_MATCH, caller);
+    }
+
+    @Test
+    public void keystrokeCostIsConstantAfterManyRebinds() {
+        for (int i = 0; i < 1000; i++)
+            bindCallMatch("Dana Levi");
+
+        scheduler.scheduled = 0;
+        view.type("d");
+
+        assertEquals(1, scheduler.scheduled);
+        assertEquals(1, scheduler.pending.size());
+        scheduler.flush();
+        assertEquals(List.of(false), results);
+    }
+
+    @Test
+    public void textTypedBeforeTheDebounceSurvivesARebind() {
+        bindCallMatch("Dana Levi");
+        view.type("Dana ");
+
+        // scrolled away before the match ran
+        binder.unbind();
+        view.text = "";
+        bindCallMatch("Dana Levi");
+
+        assertEquals("Dana ", view.text);
+        scheduler.flush();
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void typingIsSavedOnUnbindNotPerKeystroke() {
+        bindCallMatch("Dana Levi");
+        view.type("Dana");
+        assertTrue(inputValues.isEmpty());
+
+        binder.unbind();
+        assertEquals("Dana", inputValues.get(ConditionId.CALL_MATCH));
+    }
+
+    @Test
+    public void restoredTextIsNotMatchedAgain() {
+        bindCallMatch("Dana Levi");
+        view.type("dana levi");
+        scheduler.flush();
+        assertEquals(List.of(true), results);
+
+        bindCallMatch("Dana Levi");
+
+        assertEquals("dana levi", view.text);
+        assertEquals(0, scheduler.pending.size());
+        assertEquals(List.of(true), results);
+    }
+
+    @Test
+    public void newCallerMatchesTheTypedInputAgain() {
+        bindCallMatch("Dana Levi");
+        view.type("dana levi");
+        scheduler.flush();
+
+        binder.bindExpectedInput(ConditionId.CALL_MATCH, "Noa Cohen");
+        scheduler.flush();
+
+        assertEquals(List.of(true, false), results);
+    }
+
+    @Test
+    public void inputWithoutACallerIsKeptButNotMatched() {
+        bindCallMatch(null);
+        assertEquals("No recent caller", view.hint);
+
+        view.type("Dana");
+        assertTrue(scheduler.pending.isEmpty());
+
+        bindCallMatch("Dana Levi");
+        assertEquals("Enter caller name...", view.hint);
+        assertEquals("Dana", view.text);
+    }
+}
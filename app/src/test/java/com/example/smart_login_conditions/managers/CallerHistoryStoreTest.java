@@ -0,0 +1,68 @@
+package com.example.smart_login_conditions.managers;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class CallerHistoryStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void keepsOnlyTheNewestEntriesOnceFull() throws IOException {
+        CallerHistoryStore store = new CallerHistoryStore(folder.newFile("history.bin"), 3);
+        for (int i = 1; i <= 5; i++)
+            store.append("Caller " + i, i * 1000L);
+
+        assertEquals(3, store.size());
+        assertEquals("Caller 5", store.latest().name);
+        assertEquals(5000L, store.latestTimestamp());
+        assertEquals("Caller 3", store.get(2).name);
+        assertNull(store.get(3));
+    }
+
+    @Test
+    public void entriesSurviveReopening() throws IOException {
+        File file = folder.newFile("history.bin");
+        new CallerHistoryStore(file, 4).append("Dana", 42L);
+
+        CallerHistoryStore reopened = new CallerHistoryStore(file, 4);
+        assertEquals(1, reopened.size());
+        assertEquals("Dana", reopened.latest().name);
+        assertEquals(42L, reopened.latest().timestampMs);
+    }
+
+    @Test
+    public void answersRecentCallerQueries() throws IOException {
+        CallerHistoryStore store = new CallerHistoryStore(folder.newFile("history.bin"), 8);
+        assertFalse(store.hasCallSince(0));
+
+        store.append("Dana", 1_000L);
+        store.append("Omer", 5_000L);
+
+        assertTrue(store.hasCallSince(4_000L));
+        assertFalse(store.hasCallSince(6_000L));
+        assertTrue(store.hasCallFrom("Dana", 1_000L));
+        assertFalse(store.hasCallFrom("Dana", 2_000L));
+    }
+
+    @Test
+    public void truncatesLongNamesOnACharacterBoundary() throws IOException {
+        CallerHistoryStore store = new CallerHistoryStore(folder.newFile("history.bin"), 2);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 40; i++)
+            name.append('ד'); // two bytes in UTF-8
+
+        store.append(name.toString(), 1L);
+
+        String stored = store.latest().name;
+        assertEquals(CallerHistoryStore.MAX_NAME_BYTES / 2, stored.length());
+        assertTrue(name.toString().startsWith(stored));
+    }
+}
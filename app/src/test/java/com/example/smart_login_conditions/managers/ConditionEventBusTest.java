@@ -0,0 +1,85 @@
+package com.example.smart_login_conditions.managers;
+
+import com.example.smart_login_conditions.models.ConditionId;
+import com.example.smart_login_conditions.models.StatusCode;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConditionEventBusTest {
+
+    @Test
+    public void everySubscriberSeesEachEventOnce() {
+        ConditionEventBus bus = new ConditionEventBus();
+        List<String> ui = new ArrayList<>();
+        List<String> audit = new ArrayList<>();
+        ConditionEventBus.Subscriber uiSubscriber = event -> ui.add(event.format());
+        bus.subscribe(uiSubscriber);
+        bus.subscribe(uiSubscriber);
+        bus.subscribe(event -> audit.add(event.getCode() + ":" + event.getArgument()));
+
+        bus.publish(StatusCode.ROOM_BRIGHT);
+        bus.publish(StatusCode.DEVICE_CONNECTED, "Galaxy Buds");
+
+        assertEquals(List.of("✔ Room is Bright", "✔ Connected to Galaxy Buds"), ui);
+        assertEquals(List.of("ROOM_BRIGHT:null", "DEVICE_CONNECTED:Galaxy Buds"), audit);
+    }
+
+    @Test
+    public void unsubscribedSubscribersAreNotCalled() {
+        ConditionEventBus bus = new ConditionEventBus();
+        List<StatusCode> received = new ArrayList<>();
+        ConditionEventBus.Subscriber first = event -> received.add(event.getCode());
+        ConditionEventBus.Subscriber second = event -> received.add(event.getCode());
+        bus.subscribe(first);
+        bus.subscribe(second);
+
+        bus.unsubscribe(first);
+        bus.publish(StatusCode.SPIN_DETECTED);
+
+        assertEquals(List.of(StatusCode.SPIN_DETECTED), received);
+    }
+
+    @Test
+    public void eventsComeFromARingOfPreallocatedInstances() {
+        ConditionEventBus bus = new ConditionEventBus();
+        List<ConditionEventBus.ConditionEvent> seen = new ArrayList<>();
+        bus.subscribe(seen::add);
+
+        for (int i = 0; i < 64; i++)
+            bus.publish(StatusCode.ROOM_DARK);
+
+        assertNotSame(seen.get(0), seen.get(1));
+        assertSame(seen.get(0), seen.get(32));
+        assertEquals(63, seen.get(63).getSequence());
+    }
+
+    @Test
+    public void nestedPublishDoesNotOverwriteTheOuterEvent() {
+        ConditionEventBus bus = new ConditionEventBus();
+        List<String> outer = new ArrayList<>();
+        bus.subscribe(event -> {
+            if (event.getCode() == StatusCode.CALL_MATCHED) {
+                bus.publish(StatusCode.ROOM_DARK);
+                outer.add(event.getCode() + " " + event.getCondition());
+            }
+        });
+
+        bus.publish(StatusCode.CALL_MATCHED);
+
+        assertEquals(List.of("CALL_MATCHED CALL_MATCH"), outer);
+    }
+
+    @Test
+    public void codesWithoutArgumentFormatToTheSameString() {
+        assertSame(StatusCode.ROOM_DARK.format(null), StatusCode.ROOM_DARK.format(null));
+        assertEquals("✔ Headphones Seen Recently", StatusCode.DEVICE_SEEN_RECENTLY.format("Headphones"));
+        assertTrue(StatusCode.VOICE_MATCHED.isPassed());
+        assertEquals(ConditionId.CALL_MATCH, StatusCode.CALLER_UPDATED.getCondition());
+        assertFalse(StatusCode.CALLER_UPDATED.isStatus());
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.smart_login_conditions.managers;
+
+import com.example.smart_login_conditions.utils.WavFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class KeywordSpotterTest {
+
+    // a "word" is a sequence of voiced segments: fundamental frequency (Hz) and duration (ms)
+    private static final int[][] PASSPHRASE = {{220, 120}, {180, 160}, {260, 90}, {140, 200}};
+    private static final int[][] OTHER_WORD = {{140, 200}, {260, 160}, {300, 90}, {200, 120}};
+
+    // formant-like resonances per segment, so segments differ in spectral shape and not only pitch
+    private static final int[][] PASSPHRASE_FORMANTS = {{700, 1200}, {300, 2300}, {500, 900}, {400, 1800}};
+    private static final int[][] OTHER_FORMANTS = {{400, 1800}, {500, 900}, {300, 2300}, {700, 1200}};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void matchesThePassphraseSpokenFasterOrSlower() throws IOException {
+        KeywordSpotter.Template template = enroll(PASSPHRASE, PASSPHRASE_FORMANTS);
+
+        assertTrue(spot(template, PASSPHRASE, PASSPHRASE_FORMANTS, 0.85f, 2).matched);
+        assertTrue(spot(template, PASSPHRASE, PASSPHRASE_FORMANTS, 1.2f, 3).matched);
+    }
+
+    @Test
+    public void rejectsADifferentWord() throws IOException {
+        KeywordSpotter.Template template = enroll(PASSPHRASE, PASSPHRASE_FORMANTS);
+
+        assertFalse(spot(template, OTHER_WORD, OTHER_FORMANTS, 1f, 4).matched);
+    }
+
+    @Test
+    public void reportsEveryUtteranceSeparatedBySilence() {
+        KeywordSpotter.Template template = KeywordSpotter.enroll(
+                render(PASSPHRASE, PASSPHRASE_FORMANTS, 1f, 1), 0, render(PASSPHRASE, PASSPHRASE_FORMANTS, 1f, 1).length);
+        List<Boolean> results = new ArrayList<>();
+        KeywordSpotter spotter = new KeywordSpotter(KeywordSpotter.DEFAULT_THRESHOLD,
+                (distance, matched) -> results.add(matched));
+        spotter.addTemplate(template);
+
+        short[] first = render(OTHER_WORD, OTHER_FORMANTS, 1f, 5);
+        short[] second = render(PASSPHRASE, PASSPHRASE_FORMANTS, 1f, 6);
+        spotter.process(first, 0, first.length);
+        spotter.process(second, 0, second.length);
+
+        assertEquals(2, results.size());
+        assertFalse(results.get(0));
+        assertTrue(results.get(1));
+    }
+
+    @Test
+    public void ignoresSilenceAndShortClicks() {
+        List<Float> distances = new ArrayList<>();
+        KeywordSpotter spotter = new KeywordSpotter(KeywordSpotter.DEFAULT_THRESHOLD,
+                (distance, matched) -> distances.add(distance));
+
+        short[] audio = noise(KeywordSpotter.SAMPLE_RATE, 7);
+        for (int i = 8000; i < 8000 + 800; i++)
+            audio[i] = (short) (i % 2 == 0 ? 12000 : -12000);
+        spotter.process(audio, 0, audio.length);
+        spotter.flush();
+
+        assertTrue(distances.isEmpty());
+    }
+
+    @Test
+    public void templateSurvivesSerialization() throws IOException {
+        KeywordSpotter.Template template = enroll(PASSPHRASE, PASSPHRASE_FORMANTS);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        template.writeTo(new DataOutputStream(bytes));
+        KeywordSpotter.Template restored = KeywordSpotter.Template.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(template.getFrames(), restored.getFrames());
+        assertTrue(spot(restored, PASSPHRASE, PASSPHRASE_FORMANTS, 1f, 8).matched);
+    }
+
+    private static class Result {
+        boolean matched;
+        float distance = Float.NaN;
+    }
+
+    private KeywordSpotter.Template enroll(int[][] word, int[][] formants) throws IOException {
+        WavFile wav = fixture("enroll.wav", render(word, formants, 1f, 1));
+        KeywordSpotter.Template template = KeywordSpotter.enroll(wav.samples, 0, wav.samples.length);
+        assertNotNull(template);
+        return template;
+    }
+
+    private Result spot(KeywordSpotter.Template template, int[][] word, int[][] formants, float speed, long seed)
+            throws IOException {
+        WavFile wav = fixture("spot.wav", render(word, formants, speed, seed));
+        Result result = new Result();
+        KeywordSpotter spotter = new KeywordSpotter(KeywordSpotter.DEFAULT_THRESHOLD, (distance, matched) -> {
+            result.matched = matched;
+            result.distance = distance;
+        });
+        spotter.addTemplate(template);
+
+        // feed it in AudioRecord sized chunks
+        for (int offset = 0; offset < wav.samples.length; offset += 640)
+            spotter.process(wav.samples, offset, Math.min(640, wav.samples.length - offset));
+        spotter.flush();
+
+        assertFalse("no utterance detected", Float.isNaN(result.distance));
+        return result;
+    }
+
+    // goes through a real WAV file, like recordings made on a device
+    private WavFile fixture(String name, short[] samples) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        new WavFile(KeywordSpotter.SAMPLE_RATE, samples).write(file);
+        WavFile wav = WavFile.read(file);
+        assertEquals(KeywordSpotter.SAMPLE_RATE, wav.sampleRate);
+        return wav;
+    }
+
+    /**
+     * Half a second of quiet noise, the word at {@code speed} (below 1 is slower) and another second of noise.
+     */
+    private static short[] render(int[][] word, int[][] formants, float speed, long seed) {
+        int rate = KeywordSpotter.SAMPLE_RATE;
+        int wordSamples = 0;
+        for (int[] segment : word)
+            wordSamples += (int) (segment[1] / speed * rate / 1000);
+
+        int lead = rate / 2;
+        short[] audio = noise(lead + wordSamples + rate, seed);
+        double phase = 0;
+        int position = lead;
+        for (int s = 0; s < word.length; s++) {
+            int length = (int) (word[s][1] / speed * rate / 1000);
+            for (int i = 0; i < length; i++) {
+                phase += 2 * Math.PI * word[s][0] / rate;
+                double envelope = Math.min(1, Math.min(i, length - i) / (0.01 * rate));
+                double value = 0;
+                // harmonics of the fundamental, boosted near the two formants
+                for (int h = 1; h * word[s][0] < 4000; h++) {
+                    double frequency = h * word[s][0];
+                    double gain = resonance(frequency, formants[s][0]) + resonance(frequency, formants[s][1]);
+                    value += gain * Math.sin(h * phase) / h;
+                }
+                audio[position + i] += (short) (3000 * envelope * value);
+            }
+            position += length;
+        }
+        return audio;
+    }
+
+    private static double resonance(double frequency, double formant) {
+        double offset = (frequency - formant) / 120;
+        return Math.exp(-offset * offset);
+    }
+
+    private static short[] noise(int length, long seed) {
+        Random random = new Random(seed);
+        short[] audio = new short[length];
+        for (int i = 0; i < length; i++)
+            audio[i] = (short) (random.nextGaussian() * 30);
+        return audio;
+    }
+}
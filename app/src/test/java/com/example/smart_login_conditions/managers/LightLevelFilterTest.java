@@ -0,0 +1,42 @@
+package com.example.smart_login_conditions.managers;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LightLevelFilterTest {
+
+    @Test
+    public void firstReadingIsClassifiedImmediately() {
+        LightLevelFilter filter = new LightLevelFilter(10f, 2f, 0.3f);
+
+        assertTrue(filter.update(50f));
+        assertEquals(LightLevelFilter.Level.BRIGHT, filter.getLevel());
+    }
+
+    @Test
+    public void stableRoomEmitsOnlyOnce() {
+        LightLevelFilter filter = new LightLevelFilter(10f, 2f, 0.3f);
+
+        int changes = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (filter.update(i % 2 == 0 ? 9f : 11.5f))
+                changes++;
+        }
+
+        assertEquals(1, changes);
+    }
+
+    @Test
+    public void crossingTheBandFlipsTheLevel() {
+        LightLevelFilter filter = new LightLevelFilter(10f, 2f, 1f);
+        filter.update(5f);
+
+        assertFalse(filter.update(11f));
+        assertTrue(filter.update(13f));
+        assertEquals(LightLevelFilter.Level.BRIGHT, filter.getLevel());
+        assertFalse(filter.update(9f));
+        assertTrue(filter.update(7f));
+        assertEquals(LightLevelFilter.Level.DARK, filter.getLevel());
+    }
+}
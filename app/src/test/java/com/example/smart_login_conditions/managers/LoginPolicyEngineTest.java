@@ -0,0 +1,234 @@
+package com.example.smart_login_conditions.managers;
+
+import com.example.smart_login_conditions.models.ConditionId;
+import com.example.smart_login_conditions.models.LoginPolicy;
+import com.example.smart_login_conditions.models.StatusCode;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.smart_login_conditions.models.LoginPolicy.allOf;
+import static com.example.smart_login_conditions.models.LoginPolicy.anyOf;
+import static com.example.smart_login_conditions.models.LoginPolicy.atLeast;
+import static com.example.smart_login_conditions.models.LoginPolicy.condition;
+import static org.junit.Assert.*;
+
+public class LoginPolicyEngineTest {
+
+    private static class RecordingHost implements LoginPolicyEngine.Host {
+        final List<String> calls = new ArrayList<>();
+        long refreshAtMs = -1;
+
+        @Override
+        public void activate(ConditionId id) {
+            calls.add("+" + id);
+        }
+
+        @Override
+        public void deactivate(ConditionId id) {
+            calls.add("-" + id);
+        }
+
+        @Override
+        public void onExpired(ConditionId id) {
+            calls.add("expired " + id);
+        }
+
+        @Override
+        public void scheduleRefresh(long atMs) {
+            refreshAtMs = atMs;
+        }
+    }
+
+    private final RecordingHost host = new RecordingHost();
+
+    @Test
+    public void allOfActivatesEverySourceCheapestFirst() {
+        LoginPolicyEngine engine = new LoginPolicyEngine(allOf(
+                condition(ConditionId.BLUETOOTH_DEVICE),
+                condition(ConditionId.DEVICE_SPIN),
+                condition(ConditionId.ROOM_BRIGHT)), host);
+
+        engine.start(0);
+
+        assertEquals(List.of("+ROOM_BRIGHT", "+DEVICE_SPIN", "+BLUETOOTH_DEVICE"), host.calls);
+        assertFalse(engine.isSatisfied());
+    }
+
+    @Test
+    public void anyOfActivatesTheNextSourceOnlyWhenTheCheaperOneFails() {
+        LoginPolicyEngine engine = new LoginPolicyEngine(anyOf(
+                condition(ConditionId.DEVICE_SPIN),
+                condition(ConditionId.ROOM_BRIGHT)), host);
+
+        engine.start(0);
+        assertEquals(List.of("+ROOM_BRIGHT"), host.calls);
+        assertTrue(engine.isRelevant(ConditionId.DEVICE_SPIN));
+
+        engine.onStatus(StatusCode.ROOM_DARK, 10);
+        assertEquals(List.of("+ROOM_BRIGHT", "+DEVICE_SPIN"), host.calls);
+
+        // either one passing satisfies the policy, and everything stops
+        engine.onStatus(StatusCode.ROOM_BRIGHT, 20);
+        assertTrue(engine.isSatisfied());
+        assertEquals(List.of("+ROOM_BRIGHT", "+DEVICE_SPIN", "-DEVICE_SPIN", "-ROOM_BRIGHT"), host.calls);
+        assertFalse(engine.isRelevant(ConditionId.DEVICE_SPIN));
+    }
+
+    @Test
+    public void everySourceIsReleasedOnceSatisfied() {
+        LoginPolicyEngine engine = new LoginPolicyEngine(allOf(
+                condition(ConditionId.CALL_MATCH),
+                condition(ConditionId.ROOM_BRIGHT),
+                condition(ConditionId.DEVICE_SPIN, 1000)), host);
+        engine.start(0);
+
+        engine.onStatus(StatusCode.ROOM_BRIGHT, 10);
+        engine.onStatus(StatusCode.SPIN_DETECTED, 20);
+        assertEquals(List.of("+CALL_MATCH", "+ROOM_BRIGHT", "+DEVICE_SPIN", "-DEVICE_SPIN"), host.calls);
+
+        host.calls.clear();
+        engine.onStatus(StatusCode.CALL_MATCHED, 30);
+        assertTrue(engine.isSatisfied());
+        assertEquals(List.of("-CALL_MATCH", "-ROOM_BRIGHT"), host.calls);
+        assertFalse(engine.isRelevant(ConditionId.ROOM_BRIGHT));
+        // only the pass with a TTL brings anything back
+        assertEquals(1020, host.refreshAtMs);
+
+        host.calls.clear();
+        engine.refresh(1020);
+        assertFalse(engine.isSatisfied());
+        assertEquals(List.of("expired DEVICE_SPIN", "+DEVICE_SPIN"), host.calls);
+    }
+
+    @Test
+    public void satisfiedBranchLeavesTheExpensiveSourcesOff() {
+        LoginPolicyEngine engine = new LoginPolicyEngine(allOf(
+                condition(ConditionId.CALL_MATCH),
+                anyOf(condition(ConditionId.BLUETOOTH_DEVICE), condition(ConditionId.VOICE_COMMAND)),
+                atLeast(1, condition(ConditionId.DEVICE_SPIN), condition(ConditionId.ROOM_BRIGHT))), host);
+
+        engine.onStatus(StatusCode.ROOM_BRIGHT, 0);
+        engine.onStatus(StatusCode.CALL_MATCHED, 0);
+        engine.start(0);
+
+        assertEquals(List.of("+VOICE_COMMAND"), host.calls);
+        assertFalse(engine.isRelevant(ConditionId.DEVICE_SPIN));
+        assertTrue(engine.isRelevant(ConditionId.BLUETOOTH_DEVICE));
+
+        engine.onStatus(StatusCode.DEVICE_CONNECTED, 5);
+        assertTrue(engine.isSatisfied());
+        assertEquals(List.of("+VOICE_COMMAND", "-VOICE_COMMAND"), host.calls);
+    }
+
+    @Test
+    public void passesExpireAfterTheirTtl() {
+        LoginPolicyEngine engine = new LoginPolicyEngine(allOf(
+                condition(ConditionId.CALL_MATCH),
+                condition(ConditionId.ROOM_BRIGHT, 1000)), host);
+        List<Boolean> readiness = new ArrayList<>();
+        engine.addListener(readiness::add);
+        engine.start(0);
+
+        engine.onStatus(StatusCode.ROOM_BRIGHT, 100);
+        // a pass with a TTL counts without its source running
+        assertEquals(List.of("+CALL_MATCH", "+ROOM_BRIGHT", "-ROOM_BRIGHT"), host.calls);
+        assertEquals(1100, host.refreshAtMs);
+
+        engine.onStatus(StatusCode.CALL_MATCHED, 500);
+        assertTrue(engine.isSatisfied());
+
+        host.calls.clear();
+        engine.refresh(1100);
+        assertFalse(engine.isSatisfied());
+        assertEquals(List.of("expired ROOM_BRIGHT", "+ROOM_BRIGHT"), host.calls);
+        assertEquals(List.of(true, false), readiness);
+        assertEquals(-1, host.refreshAtMs);
+    }
+
+    // readiness is edge triggered, as LoginReadinessTracker's was before the engine replaced it
+    @Test
+    public void readinessFiresOnceWhenTheLastConditionPasses() {
+        LoginPolicyEngine engine = new LoginPolicyEngine(allOf(
+                condition(ConditionId.DEVICE_SPIN),
+                condition(ConditionId.ROOM_BRIGHT)), host);
+        List<Boolean> readiness = new ArrayList<>();
+        engine.addListener(readiness::add);
+        engine.start(0);
+
+        engine.onStatus(StatusCode.SPIN_DETECTED, 10);
+        assertFalse(engine.isSatisfied());
+        assertTrue(readiness.isEmpty());
+
+        engine.onStatus(StatusCode.ROOM_BRIGHT, 20);
+        engine.onStatus(StatusCode.ROOM_BRIGHT, 30);
+        assertTrue(engine.isSatisfied());
+        assertEquals(List.of(true), readiness);
+    }
+
+    @Test
+    public void readinessFiresWhenItIsLost() {
+        LoginPolicyEngine engine = new LoginPolicyEngine(allOf(
+                condition(ConditionId.DEVICE_SPIN),
+                condition(ConditionId.ROOM_BRIGHT)), host);
+        List<Boolean> readiness = new ArrayList<>();
+        engine.addListener(readiness::add);
+        engine.start(0);
+
+        engine.onStatus(StatusCode.SPIN_DETECTED, 10);
+        engine.onStatus(StatusCode.ROOM_BRIGHT, 20);
+        engine.onStatus(StatusCode.ROOM_DARK, 30);
+
+        assertFalse(engine.isSatisfied());
+        assertEquals(List.of(true, false), readiness);
+    }
+
+    @Test
+    public void failingBranchKeepsItsSourceRunning() {
+        LoginPolicyEngine engine = new LoginPolicyEngine(allOf(
+                condition(ConditionId.DEVICE_SPIN),
+                condition(ConditionId.ROOM_BRIGHT)), host);
+        engine.start(0);
+
+        engine.onStatus(StatusCode.ROOM_DARK, 10);
+
+        assertEquals(List.of("+ROOM_BRIGHT", "+DEVICE_SPIN"), host.calls);
+        assertTrue(engine.isRelevant(ConditionId.ROOM_BRIGHT));
+    }
+
+    @Test
+    public void statusReportedWhileActivatingIsApplied() {
+        LoginPolicyEngine[] engine = new LoginPolicyEngine[1];
+        LoginPolicyEngine.Host reporting = new RecordingHost() {
+            @Override
+            public void activate(ConditionId id) {
+                super.activate(id);
+                if (id == ConditionId.ROOM_BRIGHT)
+                    engine[0].onStatus(StatusCode.NO_LIGHT_SENSOR, 0);
+            }
+        };
+        engine[0] = new LoginPolicyEngine(anyOf(
+                condition(ConditionId.DEVICE_SPIN),
+                condition(ConditionId.ROOM_BRIGHT)), reporting);
+
+        engine[0].start(0);
+
+        assertEquals(List.of("+ROOM_BRIGHT", "+DEVICE_SPIN"), ((RecordingHost) reporting).calls);
+    }
+
+    @Test
+    public void policiesAreValidated() {
+        assertThrows(IllegalArgumentException.class, () -> atLeast(3,
+                condition(ConditionId.DEVICE_SPIN), condition(ConditionId.ROOM_BRIGHT)));
+        assertThrows(IllegalArgumentException.class, () -> anyOf(
+                condition(ConditionId.DEVICE_SPIN), allOf(condition(ConditionId.DEVICE_SPIN))));
+        assertThrows(IllegalArgumentException.class, () -> condition(ConditionId.DEVICE_SPIN, -1));
+
+        LoginPolicy policy = atLeast(2, condition(ConditionId.BLUETOOTH_DEVICE),
+                condition(ConditionId.DEVICE_SPIN), condition(ConditionId.ROOM_BRIGHT));
+        assertEquals(ConditionId.DEVICE_SPIN.getActivationCost() + ConditionId.ROOM_BRIGHT.getActivationCost(),
+                policy.getCost());
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.smart_login_conditions.managers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SensorSessionsTest {
+
+    private static final String LIGHT = "light";
+    private static final String GYROSCOPE = "gyroscope";
+    private static final int NORMAL_US = 200_000;
+    private static final int GAME_US = 20_000;
+
+    private static class RecordingService implements SensorSessions.SensorService<String> {
+        final List<String> calls = new ArrayList<>();
+        boolean available = true;
+
+        @Override
+        public boolean register(String sensor, int samplingPeriodUs) {
+            if (!available)
+                return false;
+            calls.add("+" + sensor + "@" + samplingPeriodUs);
+            return true;
+        }
+
+        @Override
+        public void unregister(String sensor) {
+            calls.add("-" + sensor);
+        }
+
+        @Override
+        public String getName(String sensor) {
+            return sensor;
+        }
+
+        @Override
+        public float getPower(String sensor) {
+            return 1f;
+        }
+    }
+
+    // runs tasks when the test moves the clock past their time
+    private static class ManualScheduler implements SensorSessions.Scheduler {
+        final Map<Runnable, Long> pending = new LinkedHashMap<>();
+        long nowMs;
+
+        @Override
+        public void schedule(Runnable task, long delayMs) {
+            pending.put(task, nowMs + delayMs);
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            pending.remove(task);
+        }
+
+        void advance(long ms) {
+            long until = nowMs + ms;
+            while (true) {
+                Runnable next = null;
+                long nextAt = Long.MAX_VALUE;
+                for (Map.Entry<Runnable, Long> entry : pending.entrySet()) {
+                    if (entry.getValue() <= until && entry.getValue() < nextAt) {
+                        next = entry.getKey();
+                        nextAt = entry.getValue();
+                    }
+                }
+                if (next == null)
+                    break;
+
+                pending.remove(next);
+                nowMs = nextAt;
+                next.run();
+            }
+            nowMs = until;
+        }
+    }
+
+    private final RecordingService service = new RecordingService();
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final SensorSessions<String> sessions = new SensorSessions<>(service, scheduler,
+            () -> scheduler.nowMs * 1_000_000);
+
+    @Test
+    public void wantedSensorIsReleasedOnPauseAndRearmedOnResume() {
+        sessions.start(LIGHT, NORMAL_US);
+        assertTrue(service.calls.isEmpty());
+
+        sessions.resume();
+        sessions.pause();
+        sessions.resume();
+
+        assertEquals(List.of("+light@200000", "-light", "+light@200000"), service.calls);
+        assertEquals(2, sessions.getStats(LIGHT).getActivations());
+        assertTrue(sessions.getStats(LIGHT).isActive());
+    }
+
+    @Test
+    public void dutyCycleTogglesTheRegistration() {
+        sessions.resume();
+        sessions.start(LIGHT, NORMAL_US);
+        sessions.setDutyCycle(LIGHT, 100, 900);
+
+        scheduler.advance(100);
+        assertEquals(List.of("+light@200000", "-light"), service.calls);
+        scheduler.advance(900);
+        assertEquals(List.of("+light@200000", "-light", "+light@200000"), service.calls);
+
+        // back to continuous listening, nothing left to toggle
+        sessions.setDutyCycle(LIGHT, 0, 0);
+        scheduler.advance(10_000);
+        assertEquals(3, service.calls.size());
+        assertTrue(scheduler.pending.isEmpty());
+    }
+
+    @Test
+    public void pauseStopsTheDutyCycleAndResumeStartsWithAListeningWindow() {
+        sessions.resume();
+        sessions.start(LIGHT, NORMAL_US);
+        sessions.setDutyCycle(LIGHT, 100, 900);
+        scheduler.advance(100);
+
+        sessions.pause();
+        assertTrue(scheduler.pending.isEmpty());
+        scheduler.advance(10_000);
+        assertEquals(List.of("+light@200000", "-light"), service.calls);
+
+        sessions.resume();
+        assertEquals(List.of("+light@200000", "-light", "+light@200000"), service.calls);
+        assertEquals(1, scheduler.pending.size());
+    }
+
+    @Test
+    public void sensorStoppedAfterASpinStaysOffAcrossResume() {
+        sessions.resume();
+        sessions.start(GYROSCOPE, GAME_US);
+        sessions.start(LIGHT, NORMAL_US);
+
+        // what SensorHandler does once two spins were detected
+        sessions.stop(GYROSCOPE);
+        sessions.pause();
+        sessions.resume();
+
+        assertEquals(List.of("+gyroscope@20000", "+light@200000", "-gyroscope", "-light", "+light@200000"),
+                service.calls);
+        assertFalse(sessions.getStats(GYROSCOPE).isActive());
+    }
+
+    @Test
+    public void newSamplingPeriodRegistersAgain() {
+        sessions.resume();
+        sessions.start(GYROSCOPE, NORMAL_US);
+        sessions.start(GYROSCOPE, NORMAL_US);
+        sessions.start(GYROSCOPE, GAME_US);
+
+        assertEquals(List.of("+gyroscope@200000", "-gyroscope", "+gyroscope@20000"), service.calls);
+    }
+
+    @Test
+    public void failedRegistrationIsRetriedOnResume() {
+        service.available = false;
+        sessions.resume();
+        sessions.start(LIGHT, NORMAL_US);
+        assertFalse(sessions.getStats(LIGHT).isActive());
+
+        sessions.pause();
+        service.available = true;
+        sessions.resume();
+
+        assertEquals(List.of("+light@200000"), service.calls);
+        assertTrue(sessions.getStats(LIGHT).isActive());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.smart_login_conditions.managers;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SensorTraceTest {
+
+    // android.hardware.Sensor.TYPE_GYROSCOPE / TYPE_LIGHT
+    private static final int TYPE_GYROSCOPE = 4;
+    private static final int TYPE_LIGHT = 5;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replayReturnsRecordedSamples() throws IOException {
+        File file = folder.newFile("roundtrip.trace");
+        try (SensorTraceRecorder recorder = new SensorTraceRecorder(file)) {
+            recorder.record(TYPE_LIGHT, 100L, new float[]{42.5f, 0f, 0f}, 1);
+            recorder.record(TYPE_GYROSCOPE, 200L, new float[]{0.1f, -0.2f, 3.3f}, 3);
+        }
+
+        List<String> samples = new ArrayList<>();
+        long count = new SensorTraceReplay(file).replay((type, timestamp, values, valueCount) -> {
+            StringBuilder sample = new StringBuilder(type + "@" + timestamp);
+            for (int i = 0; i < valueCount; i++)
+                sample.append(' ').append(values[i]);
+            samples.add(sample.toString());
+        });
+
+        assertEquals(2, count);
+        assertEquals("5@100 42.5", samples.get(0));
+        assertEquals("4@200 0.1 -0.2 3.3", samples.get(1));
+    }
+
+    @Test
+    public void replayedGyroTraceDrivesSpinDetector() throws IOException {
+        File file = folder.newFile("spin.trace");
+        float rate = (float) (2 * Math.PI);
+        try (SensorTraceRecorder recorder = new SensorTraceRecorder(file)) {
+            float[] values = new float[]{0f, 0f, rate};
+            for (int i = 1; i <= 10_000; i++)
+                recorder.record(TYPE_GYROSCOPE, i * 20_000_000L, values, 3);
+        }
+
+        SpinDetector detector = new SpinDetector(2f, 4_000_000_000L, 512);
+        long[] detectedAt = new long[1];
+        new SensorTraceReplay(file).replay((type, timestamp, values, valueCount) -> {
+            if (type == TYPE_GYROSCOPE && detector.onSample(timestamp, values[0], values[1], values[2]))
+                detectedAt[0] = timestamp;
+        });
+
+        assertTrue(detector.isDetected());
+        assertEquals(2.0, detectedAt[0] / 1e9, 0.05);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedTrace() throws IOException {
+        File file = folder.newFile("truncated.trace");
+        try (SensorTraceRecorder recorder = new SensorTraceRecorder(file)) {
+            recorder.record(TYPE_LIGHT, 1L, new float[]{1f}, 1);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 2);
+        }
+
+        new SensorTraceReplay(file).replay((type, timestamp, values, valueCount) -> {
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.smart_login_conditions.managers;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SensorUsageStatsTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void accumulatesActiveTimeAcrossActivations() {
+        SensorUsageStats stats = new SensorUsageStats("light", 0.5f);
+
+        stats.markActive(0);
+        stats.markInactive(3 * SECOND);
+        stats.markActive(10 * SECOND);
+
+        assertTrue(stats.isActive());
+        assertEquals(5 * SECOND, stats.getActiveNs(12 * SECOND));
+        assertEquals(2, stats.getActivations());
+    }
+
+    @Test
+    public void ignoresRepeatedTransitions() {
+        SensorUsageStats stats = new SensorUsageStats("gyroscope", 6f);
+
+        stats.markInactive(SECOND);
+        stats.markActive(2 * SECOND);
+        stats.markActive(3 * SECOND);
+        stats.markInactive(4 * SECOND);
+        stats.markInactive(5 * SECOND);
+
+        assertFalse(stats.isActive());
+        assertEquals(2 * SECOND, stats.getActiveNs(9 * SECOND));
+        assertEquals(1, stats.getActivations());
+    }
+
+    @Test
+    public void estimatesEnergyFromRatedCurrent() {
+        SensorUsageStats stats = new SensorUsageStats("gyroscope", 6f);
+        for (int i = 0; i < 3; i++)
+            stats.onEvent();
+
+        stats.markActive(0);
+        stats.markInactive(1800 * SECOND);
+
+        assertEquals(3, stats.getEvents());
+        assertEquals(3.0, stats.getEstimatedMah(1800 * SECOND), 1e-9);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.smart_login_conditions.managers;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SpinDetectorTest {
+
+    private static final long STEP_NS = 20_000_000L;
+    private static final long WINDOW_NS = 4_000_000_000L;
+
+    // rad/s that completes one rotation per second
+    private static final float ONE_TURN_PER_SECOND = (float) (2 * Math.PI);
+
+    private static long feed(SpinDetector detector, long start, int samples, float x, float y, float z) {
+        long t = start;
+        for (int i = 0; i < samples; i++) {
+            t += STEP_NS;
+            if (detector.onSample(t, x, y, z))
+                return -t;
+        }
+        return t;
+    }
+
+    @Test
+    public void detectsTwoTurnsAboutAnArbitraryAxis() {
+        SpinDetector detector = new SpinDetector(2f, WINDOW_NS, 512);
+        float component = ONE_TURN_PER_SECOND / (float) Math.sqrt(2);
+
+        long t = feed(detector, 1, 120, component, 0f, component);
+
+        assertTrue(t < 0);
+        assertTrue(detector.isDetected());
+    }
+
+    @Test
+    public void slowSpinOutsideWindowDoesNotCount() {
+        SpinDetector detector = new SpinDetector(2f, WINDOW_NS, 512);
+
+        // a quarter turn per second never reaches two turns inside four seconds
+        long t = feed(detector, 1, 1000, 0f, 0f, ONE_TURN_PER_SECOND / 4);
+
+        assertTrue(t > 0);
+        assertFalse(detector.isDetected());
+    }
+
+    @Test
+    public void fastSensorStillCoversTheWholeWindow() {
+        // a 1 kHz gyroscope would overflow one entry per sample within half a second
+        SpinDetector detector = new SpinDetector(2f, WINDOW_NS, 512);
+
+        long t = 1;
+        boolean detected = false;
+        for (int i = 0; i < 3000 && !detected; i++) {
+            t += 1_000_000L;
+            detected = detector.onSample(t, 0f, 0f, ONE_TURN_PER_SECOND);
+        }
+
+        assertTrue(detected);
+        assertTrue(t > 1_900_000_000L);
+    }
+
+    @Test
+    public void shakingBackAndForthCancelsOut() {
+        SpinDetector detector = new SpinDetector(2f, WINDOW_NS, 512);
+
+        long t = 1;
+        for (int i = 0; i < 20; i++) {
+            t = feed(detector, t, 25, 0f, 0f, 2 * ONE_TURN_PER_SECOND);
+            t = feed(detector, t, 25, 0f, 0f, -2 * ONE_TURN_PER_SECOND);
+        }
+
+        assertFalse(detector.isDetected());
+    }
+
+    @Test
+    public void resetRearmsDetection() {
+        SpinDetector detector = new SpinDetector(2f, WINDOW_NS, 512);
+        long t = -feed(detector, 1, 200, 0f, ONE_TURN_PER_SECOND, 0f);
+        assertTrue(detector.isDetected());
+
+        detector.reset();
+        assertFalse(detector.isDetected());
+        assertEquals(0, detector.getRotations(), 0f);
+
+        assertTrue(feed(detector, t, 200, 0f, ONE_TURN_PER_SECOND, 0f) < 0);
+    }
+}
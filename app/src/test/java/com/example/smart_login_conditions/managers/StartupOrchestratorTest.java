@@ -0,0 +1,171 @@
+package com.example.smart_login_conditions.managers;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class StartupOrchestratorTest {
+
+    private final ExecutorService background = Executors.newFixedThreadPool(4);
+    private final ExecutorService main = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "main"));
+
+    @After
+    public void tearDown() {
+        background.shutdownNow();
+        main.shutdownNow();
+    }
+
+    @Test
+    public void runsIndependentStepsInParallel() throws InterruptedException {
+        // each step waits for the other, so this only finishes if both run at once
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Runnable meet = () -> {
+            bothStarted.countDown();
+            await(bothStarted);
+        };
+
+        List<StartupOrchestrator.Timing> timings = run(new StartupOrchestrator(background, main)
+                .onBackground("prefs", meet)
+                .onBackground("sensors", meet));
+
+        assertEquals(2, timings.size());
+    }
+
+    @Test
+    public void startsAStepOnlyAfterItsDependencies() throws InterruptedException {
+        List<StartupOrchestrator.Timing> timings = run(new StartupOrchestrator(background, main)
+                .onBackground("prefs", () -> sleep(20))
+                .onBackground("sensors", () -> sleep(30))
+                .onMain("bindUi", () -> sleep(5), "sensors")
+                .onMain("applyPrefs", () -> {
+                }, "prefs", "bindUi"));
+
+        Map<String, StartupOrchestrator.Timing> byName = byName(timings);
+        assertEquals(4, byName.size());
+        assertTrue(byName.get("bindUi").startNs >= byName.get("sensors").endNs());
+        assertTrue(byName.get("applyPrefs").startNs >= byName.get("prefs").endNs());
+        assertTrue(byName.get("applyPrefs").startNs >= byName.get("bindUi").endNs());
+        assertTrue(byName.get("sensors").durationNs >= TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    @Test
+    public void runsStepsOnTheirExecutor() throws InterruptedException {
+        Map<String, StartupOrchestrator.Timing> byName = byName(run(new StartupOrchestrator(background, main)
+                .onBackground("load", () -> {
+                })
+                .onMain("bind", () -> {
+                }, "load")));
+
+        assertTrue(byName.get("bind").onMain);
+        assertEquals("main", byName.get("bind").threadName);
+        assertFalse(byName.get("load").onMain);
+        assertNotEquals("main", byName.get("load").threadName);
+    }
+
+    @Test
+    public void failureSkipsDependentsButNotOtherSteps() throws InterruptedException {
+        AtomicBoolean dependentRan = new AtomicBoolean();
+        AtomicBoolean independentRan = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch finished = new CountDownLatch(1);
+
+        new StartupOrchestrator(background, main)
+                .onBackground("broken", () -> {
+                    throw new IllegalStateException("boom");
+                })
+                .onMain("dependent", () -> dependentRan.set(true), "broken")
+                .onBackground("independent", () -> independentRan.set(true))
+                .start((timings, error) -> {
+                    failure.set(error);
+                    finished.countDown();
+                });
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals("boom", failure.get().getMessage());
+        assertFalse(dependentRan.get());
+        assertTrue(independentRan.get());
+    }
+
+    @Test
+    public void failedOptionalStepIsRecordedButItsDependentsRun() throws InterruptedException {
+        AtomicBoolean dependentRan = new AtomicBoolean();
+
+        Map<String, StartupOrchestrator.Timing> timings = byName(run(new StartupOrchestrator(background, main)
+                .onBackground("bluetooth", () -> {
+                    throw new IllegalStateException("no adapter");
+                })
+                .onMain("bindUi", () -> dependentRan.set(true), "bluetooth")
+                .optional("bluetooth")));
+
+        assertTrue(dependentRan.get());
+        assertTrue(timings.get("bluetooth").failed);
+        assertEquals("no adapter", timings.get("bluetooth").error.getMessage());
+        assertFalse(timings.get("bindUi").failed);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsCycles() {
+        new StartupOrchestrator(background, main)
+                .onBackground("a", () -> {
+                }, "b")
+                .onBackground("b", () -> {
+                }, "a")
+                .start((timings, failure) -> {
+                });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsUnknownDependencies() {
+        new StartupOrchestrator(background, main)
+                .onMain("bindUi", () -> {
+                }, "sensors")
+                .start((timings, failure) -> {
+                });
+    }
+
+    private static List<StartupOrchestrator.Timing> run(StartupOrchestrator orchestrator) throws InterruptedException {
+        AtomicReference<List<StartupOrchestrator.Timing>> result = new AtomicReference<>();
+        CountDownLatch finished = new CountDownLatch(1);
+        orchestrator.start((timings, failure) -> {
+            assertNull(failure);
+            result.set(timings);
+            finished.countDown();
+        });
+        assertTrue("startup did not finish", finished.await(5, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    private static Map<String, StartupOrchestrator.Timing> byName(List<StartupOrchestrator.Timing> timings) {
+        Map<String, StartupOrchestrator.Timing> byName = new HashMap<>();
+        for (StartupOrchestrator.Timing timing : timings)
+            byName.put(timing.name, timing);
+        return byName;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.smart_login_conditions.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AddressSetTest {
+
+    @Test
+    public void skipsRepeatReports() {
+        AddressSet seen = new AddressSet(4);
+        long first = AddressSet.parse("00:1A:7D:DA:71:13");
+
+        assertTrue(seen.add(first));
+        assertFalse(seen.add(AddressSet.parse("00:1a:7d:da:71:13")));
+        assertTrue(seen.add(AddressSet.parse("00:00:00:00:00:00")));
+        for (int i = 0; i < 1000; i++)
+            seen.add(i * 7919L);
+
+        assertTrue(seen.contains(first));
+    }
+
+    @Test
+    public void clearStartsANewScan() {
+        AddressSet seen = new AddressSet(4);
+        long address = AddressSet.parse("4C:00:2A:00:01:02");
+        seen.add(address);
+
+        seen.clear();
+
+        assertEquals(0, seen.size());
+        assertFalse(seen.contains(address));
+        assertTrue(seen.add(address));
+    }
+
+    @Test
+    public void rejectsMalformedAddresses() {
+        assertEquals(-1, AddressSet.parse("00-1A-7D-DA-71-13"));
+        assertEquals(-1, AddressSet.parse("00:1A:7D:DA:71"));
+        assertEquals(-1, AddressSet.parse("00:1A:7D:DA:71:1G"));
+        assertEquals(-1, AddressSet.parse(null));
+        assertEquals(0xFFFFFFFFFFFFL, AddressSet.parse("FF:FF:FF:FF:FF:FF"));
+    }
+}
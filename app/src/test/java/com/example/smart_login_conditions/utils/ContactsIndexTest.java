@@ -0,0 +1,44 @@
+package com.example.smart_login_conditions.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ContactsIndexTest {
+
+    @Test
+    public void lookupFindsEveryNumberOfAContact() {
+        ContactsIndex index = new ContactsIndex();
+        index.put(1, "+972501234567", "Dana");
+        index.put(1, "+97231234567", "Dana");
+
+        assertEquals("Dana", index.lookup("+972501234567"));
+        assertEquals("Dana", index.lookup("+97231234567"));
+        assertNull(index.lookup("+15550000000"));
+    }
+
+    @Test
+    public void reindexingAContactDropsItsRemovedNumbers() {
+        ContactsIndex index = new ContactsIndex();
+        index.put(1, "+972501234567", "Dana");
+        index.put(1, "+97231234567", "Dana");
+
+        index.removeContact(1);
+        index.put(1, "+972501234567", "Dana Levi");
+
+        assertEquals("Dana Levi", index.lookup("+972501234567"));
+        assertNull(index.lookup("+97231234567"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void removingAContactKeepsNumbersNowOwnedByAnother() {
+        ContactsIndex index = new ContactsIndex();
+        index.put(1, "+972501234567", "Dana");
+        index.put(2, "+972501234567", "Office");
+
+        index.removeContact(1);
+
+        assertEquals("Office", index.lookup("+972501234567"));
+    }
+}
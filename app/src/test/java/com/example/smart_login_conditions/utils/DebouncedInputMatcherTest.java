@@ -0,0 +1,61 @@
+package com.example.smart_login_conditions.utils;
+
+import com.example.smart_login_conditions.models.ConditionId;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DebouncedInputMatcherTest {
+
+    private ManualScheduler scheduler;
+    private DebouncedInputMatcher matcher;
+    private final List<Boolean> results = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        scheduler = new ManualScheduler();
+        matcher = new DebouncedInputMatcher(scheduler, DebouncedInputMatcher.DEFAULT_DELAY_MS);
+        matcher.setOnMatchResultListener((id, input, matched) -> results.add(matched));
+    }
+
+    @Test
+    public void onlyTheSettledInputIsMatched() {
+        matcher.bind(ConditionId.CALL_MATCH, "Dana Levi");
+
+        StringBuilder typed = new StringBuilder();
+        for (char c : "  dana LEVI ".toCharArray()) {
+            typed.append(c);
+            matcher.onInput(typed);
+        }
+
+        assertEquals(1, scheduler.pending.size());
+        scheduler.flush();
+        assertEquals(1, results.size());
+        assertTrue(results.get(0));
+    }
+
+    @Test
+    public void unbindDropsPendingMatch() {
+        matcher.bind(ConditionId.CALL_MATCH, "Dana");
+        matcher.onInput("Dana");
+        matcher.unbind();
+
+        scheduler.flush();
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void noExpectedCallerNeverMatches() {
+        matcher.bind(ConditionId.CALL_MATCH, null);
+        matcher.onInput("");
+        scheduler.flush();
+
+        assertEquals(1, results.size());
+        assertFalse(results.get(0));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.smart_login_conditions.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DeviceNameMatcherTest {
+
+    @Test
+    public void findsAnyPatternCaseInsensitively() {
+        DeviceNameMatcher matcher = new DeviceNameMatcher("AirPods", "Galaxy Buds", "WH-1000");
+
+        assertEquals(0, matcher.indexIn("Dana's AIRPODS Pro"));
+        assertEquals(1, matcher.indexIn("galaxy buds2"));
+        assertEquals(2, matcher.indexIn("Sony WH-1000XM5"));
+        assertEquals(-1, matcher.indexIn("Galaxy Watch"));
+        assertEquals(-1, matcher.indexIn(null));
+    }
+
+    @Test
+    public void followsFailureLinksAcrossOverlappingPatterns() {
+        DeviceNameMatcher matcher = new DeviceNameMatcher("abcd", "bce", "pods");
+
+        assertEquals(1, matcher.indexIn("xxabce"));
+        assertEquals(0, matcher.indexIn("ababcd"));
+        assertEquals(2, matcher.indexIn("airpopods"));
+        assertFalse(matcher.matches("abc"));
+    }
+
+    @Test
+    public void supportsNonAsciiPatterns() {
+        DeviceNameMatcher matcher = new DeviceNameMatcher("אוזניות", "Kopfhörer");
+
+        assertTrue(matcher.matches("האוזניות של דנה"));
+        assertTrue(matcher.matches("KOPFHÖRER 3"));
+        assertFalse(matcher.matches("Kopfhorer"));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.smart_login_conditions.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link DebouncedInputMatcher.Scheduler} for tests: tasks only run on {@link #flush()}.
+ */
+public class ManualScheduler implements DebouncedInputMatcher.Scheduler {
+    public final List<Runnable> pending = new ArrayList<>();
+    public int scheduled;
+
+    @Override
+    public void schedule(Runnable task, long delayMs) {
+        scheduled++;
+        pending.add(task);
+    }
+
+    @Override
+    public void cancel(Runnable task) {
+        pending.remove(task);
+    }
+
+    public void flush() {
+        List<Runnable> tasks = new ArrayList<>(pending);
+        pending.clear();
+        for (Runnable task : tasks)
+            task.run();
+    }
+}
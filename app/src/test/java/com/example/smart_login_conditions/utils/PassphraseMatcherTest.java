@@ -0,0 +1,71 @@
+package com.example.smart_login_conditions.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PassphraseMatcherTest {
+
+    private final PassphraseMatcher matcher = new PassphraseMatcher("Password", "Open sesame");
+
+    @Test
+    public void matchesWholePhraseIgnoringCaseSpacingAndPunctuation() {
+        assertEquals(0, matcher.indexOf("password"));
+        assertEquals(0, matcher.indexOf("Pass word."));
+        assertEquals(1, matcher.indexOf("open, Sesame!"));
+    }
+
+    @Test
+    public void toleratesNearMisses() {
+        assertTrue(matcher.matches("passwerd"));
+        assertTrue(matcher.matches("passwords"));
+        assertTrue(matcher.matches("opens sesame"));
+    }
+
+    @Test
+    public void matchesSoundAlikeSpellings() {
+        // too many edits for the spelling, same consonant classes
+        assertTrue(matcher.matches("pazz wort"));
+    }
+
+    @Test
+    public void rejectsWordsThatOnlyShareTheSoundCode() {
+        assertFalse(matcher.matches("backyard"));
+        assertFalse(matcher.matches("buzzard"));
+        assertFalse(matcher.matches("big card"));
+        assertFalse(matcher.matches("pizza red"));
+        assertFalse(matcher.matches("vizard"));
+    }
+
+    @Test
+    public void rejectsSentencesThatOnlyContainThePhrase() {
+        assertFalse(matcher.matches("my password is secret"));
+        assertFalse(matcher.matches("forgot password"));
+    }
+
+    @Test
+    public void rejectsOtherWords() {
+        assertFalse(matcher.matches("powered"));
+        assertFalse(matcher.matches("pass"));
+        assertFalse(matcher.matches(""));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    public void picksTheMostConfidentMatchingHypothesis() {
+        assertEquals(1, matcher.indexOfAny(Arrays.asList("often same", "open sesame", "password")));
+        assertEquals(-1, matcher.indexOfAny(Arrays.asList("hello", "yellow")));
+    }
+
+    @Test
+    public void distanceStaysCorrectForLongPhrases() {
+        String phrase = "the quick brown fox jumps over the lazy dog near the river bank";
+        PassphraseMatcher longMatcher = new PassphraseMatcher(phrase);
+
+        assertTrue(longMatcher.matches(phrase.toUpperCase()));
+        assertTrue(longMatcher.matches("the quick brown fax jumps over a lazy dog near the river bank"));
+        assertFalse(longMatcher.matches("a slow green turtle walks under the busy cat by the lake"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.smart_login_conditions.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SpscQueueTest {
+
+    @Test
+    public void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(1, new SpscQueue<Integer>(1).capacity());
+        assertEquals(64, new SpscQueue<Integer>(64).capacity());
+        assertEquals(128, new SpscQueue<Integer>(65).capacity());
+    }
+
+    @Test
+    public void pollReturnsItemsInOfferOrder() {
+        SpscQueue<Integer> queue = new SpscQueue<>(4);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(queue.offer(i));
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void offerFailsWhenFullUntilAnItemIsPolled() {
+        SpscQueue<Integer> queue = new SpscQueue<>(4);
+        for (int i = 0; i < 4; i++)
+            assertTrue(queue.offer(i));
+
+        assertFalse(queue.offer(4));
+        assertEquals(Integer.valueOf(0), queue.poll());
+        assertTrue(queue.offer(4));
+
+        for (int i = 1; i <= 4; i++)
+            assertEquals(Integer.valueOf(i), queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void consumerSeesEveryItemOfAConcurrentProducerInOrder() throws InterruptedException {
+        SpscQueue<Integer> queue = new SpscQueue<>(16);
+        int count = 200_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!queue.offer(i))
+                    Thread.yield();
+            }
+        });
+        producer.start();
+
+        int expected = 0;
+        while (expected < count) {
+            Integer item = queue.poll();
+            if (item == null) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(expected++, item.intValue());
+        }
+        producer.join();
+        assertTrue(queue.isEmpty());
+    }
+}
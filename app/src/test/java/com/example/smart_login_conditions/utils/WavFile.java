@@ -0,0 +1,82 @@
+package com.example.smart_login_conditions.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+/**
+ * Minimal reader and writer for 16-bit PCM WAV files, used for keyword spotter fixtures.
+ * Multi-channel files are read as their first channel.
+ */
+public class WavFile {
+
+    private static final int RIFF = 0x46464952; // "RIFF"
+    private static final int WAVE = 0x45564157; // "WAVE"
+    private static final int FMT = 0x20746D66;  // "fmt "
+    private static final int DATA = 0x61746164; // "data"
+    private static final short FORMAT_PCM = 1;
+
+    public final int sampleRate;
+    public final short[] samples;
+
+    public WavFile(int sampleRate, short[] samples) {
+        this.sampleRate = sampleRate;
+        this.samples = samples;
+    }
+
+    public static WavFile read(File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < 12 || buffer.getInt() != RIFF)
+            throw new IOException("Not a RIFF file: " + file);
+        buffer.getInt();
+        if (buffer.getInt() != WAVE)
+            throw new IOException("Not a WAVE file: " + file);
+
+        int sampleRate = -1;
+        int channels = 0;
+        while (buffer.remaining() >= 8) {
+            int chunkId = buffer.getInt();
+            int chunkSize = buffer.getInt();
+            if (chunkSize < 0 || chunkSize > buffer.remaining())
+                throw new IOException("Truncated chunk in " + file);
+            int next = buffer.position() + chunkSize + (chunkSize & 1);
+
+            if (chunkId == FMT) {
+                short format = buffer.getShort();
+                channels = buffer.getShort();
+                sampleRate = buffer.getInt();
+                buffer.getInt();
+                buffer.getShort();
+                short bitsPerSample = buffer.getShort();
+                if (format != FORMAT_PCM || bitsPerSample != 16 || channels < 1)
+                    throw new IOException("Only 16-bit PCM is supported: " + file);
+            } else if (chunkId == DATA) {
+                if (sampleRate < 0)
+                    throw new IOException("data chunk before fmt chunk in " + file);
+
+                short[] samples = new short[chunkSize / 2 / channels];
+                for (int i = 0; i < samples.length; i++)
+                    samples[i] = buffer.getShort(buffer.position() + i * channels * 2);
+                return new WavFile(sampleRate, samples);
+            }
+            buffer.position(Math.min(next, buffer.limit()));
+        }
+        throw new IOException("No data chunk in " + file);
+    }
+
+    public void write(File file) throws IOException {
+        int dataSize = samples.length * 2;
+        ByteBuffer buffer = ByteBuffer.allocate(44 + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(RIFF).putInt(36 + dataSize).putInt(WAVE);
+        buffer.putInt(FMT).putInt(16)
+                .putShort(FORMAT_PCM).putShort((short) 1)
+                .putInt(sampleRate).putInt(sampleRate * 2)
+                .putShort((short) 2).putShort((short) 16);
+        buffer.putInt(DATA).putInt(dataSize);
+        for (short sample : samples)
+            buffer.putShort(sample);
+        Files.write(file.toPath(), buffer.array());
+    }
+}
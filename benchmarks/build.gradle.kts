@@ -0,0 +1,51 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// The app module is an Android application and cannot be depended on from a JVM module,
+// so the Android-free hot path classes are compiled here straight from the app sources.
+sourceSets {
+    main {
+        java {
+            setSrcDirs(listOf("../app/src/main/java"))
+            include(
+                "com/example/smart_login_conditions/models/**",
+                "com/example/smart_login_conditions/interfaces/**",
+                "com/example/smart_login_conditions/managers/ConditionRegistry.java",
+                "com/example/smart_login_conditions/managers/KeywordSpotter.java",
+                "com/example/smart_login_conditions/managers/LightLevelFilter.java",
+                "com/example/smart_login_conditions/managers/MfccExtractor.java",
+                "com/example/smart_login_conditions/managers/SpinDetector.java",
+                "com/example/smart_login_conditions/managers/SensorTraceRecorder.java",
+                "com/example/smart_login_conditions/managers/SensorTraceReplay.java",
+                "com/example/smart_login_conditions/utils/AddressSet.java",
+                "com/example/smart_login_conditions/utils/CallerNameMatcher.java",
+                "com/example/smart_login_conditions/utils/DebouncedInputMatcher.java",
+                "com/example/smart_login_conditions/utils/DeviceNameMatcher.java",
+                "com/example/smart_login_conditions/utils/PassphraseMatcher.java"
+            )
+        }
+    }
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    benchmarkMode.set(listOf("thrpt"))
+    timeUnit.set("s")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    // reports gc.alloc.rate.norm, the bytes allocated per op
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
@@ -0,0 +1,41 @@
+package com.example.smart_login_conditions.benchmarks;
+
+import com.example.smart_login_conditions.utils.CallerNameMatcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Caller name matching, run for each Call Match keystroke that settles.
+ */
+@State(Scope.Thread)
+public class CallerNameMatcherBenchmark {
+
+    private static final String CALLER = "Dana Levi";
+
+    @Param({"dana levi ", "Dana Lev", "x"})
+    public String typed;
+
+    private final CallerNameMatcher matcher = new CallerNameMatcher();
+    private StringBuilder editable;
+
+    @Setup
+    public void setUp() {
+        matcher.setExpected(CALLER);
+        editable = new StringBuilder(typed);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return matcher.matches(editable);
+    }
+
+    // what ConditionAdapter did per keystroke before the matcher existed, kept as a baseline
+    @Benchmark
+    public boolean toStringTrimEqualsIgnoreCase() {
+        return editable.toString().trim().equalsIgnoreCase(CALLER);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.smart_login_conditions.benchmarks;
+
+import com.example.smart_login_conditions.interfaces.ConditionEvaluator;
+import com.example.smart_login_conditions.managers.ConditionRegistry;
+import com.example.smart_login_conditions.models.ConditionId;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Status updates as they arrive from the sensor and Bluetooth callbacks.
+ */
+@State(Scope.Thread)
+public class ConditionRegistryBenchmark {
+
+    private static final String BRIGHT = "✔ Room is Bright";
+    private static final String DARK = "❌ Room is Dark";
+
+    private final ConditionRegistry registry = new ConditionRegistry();
+    private boolean passed;
+
+    @Setup
+    public void setUp() {
+        for (ConditionId id : ConditionId.values())
+            registry.register(id, new ConditionEvaluator() {
+            });
+    }
+
+    @Benchmark
+    public int indexOf() {
+        return registry.indexOf(ConditionId.ROOM_BRIGHT);
+    }
+
+    @Benchmark
+    public void update() {
+        passed = !passed;
+        registry.update(ConditionId.ROOM_BRIGHT, passed ? BRIGHT : DARK, passed);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.smart_login_conditions.benchmarks;
+
+import com.example.smart_login_conditions.utils.AddressSet;
+import com.example.smart_login_conditions.utils.DeviceNameMatcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * One ACTION_FOUND report in a crowded office: hundreds of advertising devices, each reported
+ * several times per scan, checked against a set of target name patterns.
+ */
+@State(Scope.Thread)
+public class DeviceMatchingBenchmark {
+
+    private static final int EVENTS = 4096;
+    private static final String[] VENDOR_NAMES = {
+            "Galaxy Watch", "Mi Band", "Logitech MX", "HP LaserJet", "Tile", "Fitbit Charge",
+            "JBL Flip", "Surface Pen", "Pixel Buds", "Apple Watch", "Keyboard K380", "[TV] Samsung"
+    };
+
+    @Param({"300"})
+    public int devices;
+
+    @Param({"1", "16"})
+    public int targets;
+
+    private String[] patterns;
+    private DeviceNameMatcher matcher;
+    private final AddressSet seen = new AddressSet(512);
+    private final Set<String> seenStrings = new HashSet<>(1024);
+    private final String[] addresses = new String[EVENTS];
+    private final String[] names = new String[EVENTS];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        patterns = new String[targets];
+        patterns[0] = "AirPods";
+        for (int i = 1; i < targets; i++)
+            patterns[i] = "Headset-" + i;
+        matcher = new DeviceNameMatcher(patterns);
+
+        Random random = new Random(42);
+        for (int i = 0; i < EVENTS; i++) {
+            int device = random.nextInt(devices);
+            addresses[i] = String.format(Locale.ROOT, "4C:%02X:%02X:00:%02X:%02X",
+                    device >> 8, device & 0xFF, device % 7, device % 13);
+            names[i] = VENDOR_NAMES[device % VENDOR_NAMES.length] + " " + device;
+        }
+    }
+
+    @Benchmark
+    public boolean onDeviceFound() {
+        int i = index;
+        index = (i + 1) & (EVENTS - 1);
+        if (i == 0)
+            seen.clear();
+
+        long address = AddressSet.parse(addresses[i]);
+        if (!seen.add(address))
+            return false;
+        return matcher.matches(names[i]);
+    }
+
+    // the same dedup done the straightforward way, with one contains() per target as
+    // BluetoothManager matched before
+    @Benchmark
+    public boolean containsPerTarget() {
+        int i = index;
+        index = (i + 1) & (EVENTS - 1);
+        if (i == 0)
+            seenStrings.clear();
+
+        if (!seenStrings.add(addresses[i].toUpperCase(Locale.ROOT)))
+            return false;
+        String name = names[i];
+        for (String pattern : patterns) {
+            if (name.contains(pattern))
+                return true;
+        }
+        return false;
+    }
+}
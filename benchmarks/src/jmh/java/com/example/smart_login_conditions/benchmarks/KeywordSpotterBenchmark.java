@@ -0,0 +1,55 @@
+package com.example.smart_login_conditions.benchmarks;
+
+import com.example.smart_login_conditions.managers.KeywordSpotter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One second of microphone audio through the keyword spotter, in 40 ms AudioRecord reads: half a
+ * second of room noise and a half second utterance matched against three templates. Real time is
+ * one op per second, the score is how many times faster than that the spotter runs.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class KeywordSpotterBenchmark {
+
+    private static final int READ_SAMPLES = 640;
+
+    private final short[] audio = new short[KeywordSpotter.SAMPLE_RATE];
+    private KeywordSpotter spotter;
+    private boolean matched;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < audio.length; i++)
+            audio[i] = (short) (random.nextGaussian() * 30);
+        int[] pitches = {220, 180, 260, 140};
+        for (int i = 0; i < audio.length / 2; i++) {
+            int pitch = pitches[i * pitches.length / (audio.length / 2)];
+            audio[audio.length / 4 + i] += (short) (3000 * Math.sin(2 * Math.PI * pitch * i / KeywordSpotter.SAMPLE_RATE));
+        }
+
+        spotter = new KeywordSpotter(KeywordSpotter.DEFAULT_THRESHOLD, (distance, isMatch) -> matched = isMatch);
+        short[] utterance = new short[audio.length + KeywordSpotter.SAMPLE_RATE / 2];
+        System.arraycopy(audio, 0, utterance, 0, audio.length);
+        KeywordSpotter.Template template = KeywordSpotter.enroll(utterance, 0, utterance.length);
+        for (int i = 0; i < 3; i++)
+            spotter.addTemplate(template);
+    }
+
+    @Benchmark
+    public boolean processSecond() {
+        for (int offset = 0; offset < audio.length; offset += READ_SAMPLES)
+            spotter.process(audio, offset, Math.min(READ_SAMPLES, audio.length - offset));
+        spotter.flush();
+        return matched;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.smart_login_conditions.benchmarks;
+
+import com.example.smart_login_conditions.managers.LightLevelFilter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Light classification, run once per light sensor event.
+ */
+@State(Scope.Thread)
+public class LightLevelFilterBenchmark {
+
+    private static final int SAMPLES = 4096;
+
+    private final LightLevelFilter filter = new LightLevelFilter(10f, 2f, 0.3f);
+    private final float[] lux = new float[SAMPLES];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        // readings wander around the threshold, the worst case for classification
+        for (int i = 0; i < SAMPLES; i++)
+            lux[i] = 10f + (float) random.nextGaussian() * 5f;
+    }
+
+    @Benchmark
+    public boolean update() {
+        int i = index;
+        index = (i + 1) & (SAMPLES - 1);
+        return filter.update(lux[i]);
+    }
+}
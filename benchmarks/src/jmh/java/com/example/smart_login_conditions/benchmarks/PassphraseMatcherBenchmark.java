@@ -0,0 +1,54 @@
+package com.example.smart_login_conditions.benchmarks;
+
+import com.example.smart_login_conditions.utils.PassphraseMatcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passphrase matching, run for every partial and final recognizer hypothesis. The score is the
+ * time per hypothesis.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PassphraseMatcherBenchmark {
+
+    @Param({"password", "pass word", "my password is secret", "open sesame please"})
+    public String hypothesis;
+
+    private final PassphraseMatcher matcher = new PassphraseMatcher("Password", "Open sesame", "Let me in");
+    private List<String> nBest;
+
+    @Setup
+    public void setUp() {
+        nBest = Arrays.asList("hello", "yellow", hypothesis);
+    }
+
+    @Benchmark
+    public int indexOf() {
+        return matcher.indexOf(hypothesis);
+    }
+
+    @Benchmark
+    public int indexOfAnyThreeBest() {
+        return matcher.indexOfAny(nBest);
+    }
+
+    // what MainActivity did with the single VOICE_PASSWORD before the matcher existed, kept as a baseline
+    @Benchmark
+    public boolean toLowerCaseContains() {
+        return hypothesis.toLowerCase(Locale.ROOT).contains("password");
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.smart_login_conditions.benchmarks;
+
+import com.example.smart_login_conditions.managers.SpinDetector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Gyroscope integration, run once per sample at SENSOR_DELAY_GAME rate.
+ */
+@State(Scope.Thread)
+public class SpinDetectorBenchmark {
+
+    private static final int SAMPLES = 4096;
+    private static final long STEP_NS = 20_000_000L;
+
+    private final SpinDetector detector = new SpinDetector(2f, 4_000_000_000L, 512);
+    private final float[] x = new float[SAMPLES];
+    private final float[] y = new float[SAMPLES];
+    private final float[] z = new float[SAMPLES];
+
+    private int index;
+    private long timestamp = 1;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            x[i] = (float) random.nextGaussian();
+            y[i] = (float) random.nextGaussian();
+            z[i] = (float) random.nextGaussian();
+        }
+    }
+
+    @Benchmark
+    public boolean onSample() {
+        int i = index;
+        index = (i + 1) & (SAMPLES - 1);
+        timestamp += STEP_NS;
+
+        boolean detected = detector.onSample(timestamp, x[i], y[i], z[i]);
+        if (detected)
+            detector.reset();
+        return detected;
+    }
+}